@@ -99,12 +99,12 @@ public abstract class AbstractDerivationTransaction extends ReadOnlyTransaction
                     Set<Pair<Mutable, Observed>> newDerived = oldDerived.add(derived);
                     if (oldDerived == newDerived) {
                         if (isTraceDerivation(object, observed)) {
-                            runNonDeriving(() -> System.err.println(tracePre(object) + "RECU " + object + "." + observed + " => RECURSIVE DERIVATION, result is the non-derived value: " + nonDerived));
+                            runNonDeriving(() -> traceDerivation(object, "RECU " + object + "." + observed + " => RECURSIVE DERIVATION, result is the non-derived value: " + nonDerived));
                         }
                         return nonDerived;
                     } else {
                         if (isTraceDerivation(object, observed)) {
-                            runNonDeriving(() -> System.err.println(tracePre(object) + ">>>> " + object + "." + observed));
+                            runNonDeriving(() -> traceDerivation(object, ">>>> " + object + "." + observed));
                         }
                         INDENT.run(INDENT.get() + 1, () -> DERIVED.run(newDerived, () -> {
                             int i = 0;
@@ -118,7 +118,7 @@ public abstract class AbstractDerivationTransaction extends ReadOnlyTransaction
                         }));
                         if (!mem.isSet(this, object, constant)) {
                             if (isTraceDerivation(object, observed)) {
-                                INDENT.run(INDENT.get() + 1, () -> runNonDeriving(() -> System.err.println(tracePre(object) + "NODR " + object + "." + observed + " => NO DERIVATION, result is the non-derived value: " + nonDerived)));
+                                INDENT.run(INDENT.get() + 1, () -> runNonDeriving(() -> traceDerivation(object, "NODR " + object + "." + observed + " => NO DERIVATION, result is the non-derived value: " + nonDerived)));
                             }
                             return nonDerived;
                         }
@@ -134,14 +134,14 @@ public abstract class AbstractDerivationTransaction extends ReadOnlyTransaction
     @SuppressWarnings({"rawtypes", "unchecked"})
     protected void runDeriver(Mutable mutable, Observed observed, Observer observer, int i) {
         if (isTraceDerivation(mutable, observed)) {
-            runNonDeriving(() -> System.err.println(tracePre(mutable) + String.format(">>%d> ", i) + mutable + "." + observer + "()"));
+            runNonDeriving(() -> traceDerivation(mutable, String.format(">>%d> ", i) + mutable + "." + observer + "()"));
         }
         INDENT.run(INDENT.get() + 1, () -> DERIVER.run(Pair.of(mutable, observer), () -> {
             try {
                 observer.run(mutable);
             } catch (Throwable t) {
                 if (isTraceDerivation(mutable, observed)) {
-                    runNonDeriving(() -> System.err.println(tracePre(mutable) + "!!!! " + mutable + "." + observer + "() => THROWS " + t));
+                    runNonDeriving(() -> traceDerivation(mutable, "!!!! " + mutable + "." + observer + "() => THROWS " + t));
                 }
                 universeTransaction().handleException(new TransactionException(mutable, new TransactionException(observer, t)));
             }
@@ -175,7 +175,7 @@ public abstract class AbstractDerivationTransaction extends ReadOnlyTransaction
             if (isTraceDerivation(object, setable)) {
                 runNonDeriving(() -> {
                     Pair<Mutable, Observer> deriver = DERIVER.get();
-                    System.err.println(tracePre(object) + "SET  " + deriver.a() + "." + deriver.b() + "(" + object + "." + setable + "=" + pre + "->" + result + ")");
+                    traceDerivation(object, "SET  " + deriver.a() + "." + deriver.b() + "(" + object + "." + setable + "=" + pre + "->" + result + ")");
                 });
             }
             if (setable.containment()) {
@@ -266,8 +266,8 @@ public abstract class AbstractDerivationTransaction extends ReadOnlyTransaction
         return (setable == null || !setable.isPlumbing()) && universeTransaction().getConfig().isTraceDerivation();
     }
 
-    private <O> String tracePre(O object) {
-        return DclareTrace.getLineStart(memoization(object).toString(), this);
+    private <O> void traceDerivation(O object, String message) {
+        trace(memoization(object).toString(), message);
     }
 
     @Override
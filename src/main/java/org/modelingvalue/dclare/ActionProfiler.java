@@ -0,0 +1,167 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+// (C) Copyright 2018-2023 Modeling Value Group B.V. (http://modelingvalue.org)                                        ~
+//                                                                                                                     ~
+// Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in      ~
+// compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0  ~
+// Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on ~
+// an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the  ~
+// specific language governing permissions and limitations under the License.                                          ~
+//                                                                                                                     ~
+// Maintainers:                                                                                                        ~
+//     Wim Bast, Tom Brus, Ronald Krijgsheld                                                                           ~
+// Contributors:                                                                                                       ~
+//     Arjan Kok, Carel Bast                                                                                           ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.dclare;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.modelingvalue.collections.List;
+
+/**
+ * Gathers the runtime profile of every {@link Action} and {@link Observer} run by a {@link UniverseTransaction} that is
+ * configured with {@link DclareConfig#withProfiling(boolean)}. All counters are {@link LongAdder}s so that the parallel
+ * runs do not contend on them. The allocated bytes are measured with the {@link com.sun.management.ThreadMXBean} if the
+ * JVM supports it, otherwise they are reported as 0.
+ */
+@SuppressWarnings("rawtypes")
+public class ActionProfiler {
+    public static final int                              NR_OF_BUCKETS  = 32;
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = threadMXBean();
+
+    private final ConcurrentHashMap<Action, Profile>     profiles       = new ConcurrentHashMap<>();
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean && bean.isThreadAllocatedMemorySupported()) {
+                if (!bean.isThreadAllocatedMemoryEnabled()) {
+                    bean.setThreadAllocatedMemoryEnabled(true);
+                }
+                return bean;
+            }
+        } catch (UnsupportedOperationException | LinkageError e) {
+            // no allocation figures
+        }
+        return null;
+    }
+
+    protected long allocatedBytes() {
+        return THREAD_MX_BEAN != null ? THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() : 0L;
+    }
+
+    public Profile profile(Action action) {
+        Profile profile = profiles.get(action);
+        return profile != null ? profile : profiles.computeIfAbsent(action, Profile::new);
+    }
+
+    protected void run(Action action, long nanos, long allocated) {
+        profile(action).run(nanos, allocated);
+    }
+
+    protected void retrigger(Action action) {
+        profile(action).retriggers.increment();
+    }
+
+    protected void defer(Action action) {
+        profile(action).deferrals.increment();
+    }
+
+    /**
+     * @return the profiles of all {@link Action}s that have run, the most expensive first
+     */
+    public List<Profile> profiles() {
+        return List.of(profiles.values().stream().sorted(Comparator.comparingLong(Profile::totalNanos).reversed()).toArray(Profile[]::new));
+    }
+
+    public void reset() {
+        profiles.clear();
+    }
+
+    @Override
+    public String toString() {
+        return profiles().map(Profile::toString).collect(Collectors.joining("\n"));
+    }
+
+    public static final class Profile {
+        private final Action          action;
+        private final LongAdder       runs       = new LongAdder();
+        private final LongAdder       retriggers = new LongAdder();
+        private final LongAdder       deferrals  = new LongAdder();
+        private final LongAdder       nanos      = new LongAdder();
+        private final LongAdder       allocated  = new LongAdder();
+        private final LongAccumulator maxNanos   = new LongAccumulator(Long::max, 0L);
+        private final LongAdder[]     histogram  = new LongAdder[NR_OF_BUCKETS];
+
+        private Profile(Action action) {
+            this.action = action;
+            for (int i = 0; i < NR_OF_BUCKETS; i++) {
+                histogram[i] = new LongAdder();
+            }
+        }
+
+        private void run(long duration, long bytes) {
+            runs.increment();
+            nanos.add(duration);
+            allocated.add(bytes);
+            maxNanos.accumulate(duration);
+            histogram[bucket(duration)].increment();
+        }
+
+        /**
+         * @param duration the duration in nanoseconds
+         * @return the bucket in the histogram, bucket i counts the runs of less than 2^i microseconds
+         */
+        public static int bucket(long duration) {
+            return Math.min(NR_OF_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(duration / 1000L));
+        }
+
+        public Action action() {
+            return action;
+        }
+
+        public long runs() {
+            return runs.sum();
+        }
+
+        public long retriggers() {
+            return retriggers.sum();
+        }
+
+        public long deferrals() {
+            return deferrals.sum();
+        }
+
+        public long totalNanos() {
+            return nanos.sum();
+        }
+
+        public long maxNanos() {
+            return maxNanos.get();
+        }
+
+        public long allocatedBytes() {
+            return allocated.sum();
+        }
+
+        public long[] histogram() {
+            long[] result = new long[NR_OF_BUCKETS];
+            for (int i = 0; i < NR_OF_BUCKETS; i++) {
+                result[i] = histogram[i].sum();
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            long runs = runs();
+            return String.format("%-60s runs=%8d retriggers=%8d deferrals=%8d total=%10d us avg=%8d us max=%8d us alloc=%12d B", //
+                    action, runs, retriggers(), deferrals(), totalNanos() / 1000L, runs == 0 ? 0 : totalNanos() / runs / 1000L, maxNanos() / 1000L, allocatedBytes());
+        }
+    }
+}
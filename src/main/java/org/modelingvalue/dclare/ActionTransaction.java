@@ -17,6 +17,7 @@ package org.modelingvalue.dclare;
 
 import java.util.ConcurrentModificationException;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.function.UnaryOperator;
 
@@ -33,9 +34,10 @@ import org.modelingvalue.collections.util.TraceTimer;
 import org.modelingvalue.dclare.ex.TransactionException;
 
 public class ActionTransaction extends LeafTransaction implements StateMergeHandler {
-    private final CurrentState currentState = new CurrentState();
-    private State              preState;
-    private State              postState;
+    private final CurrentState                             currentState = new CurrentState();
+    private final ConcurrentHashMap<Mutable, TransactionId> changeIds    = new ConcurrentHashMap<>();
+    private State                                          preState;
+    private State                                          postState;
 
     protected ActionTransaction(UniverseTransaction universeTransaction) {
         super(universeTransaction);
@@ -54,16 +56,25 @@ public class ActionTransaction extends LeafTransaction implements StateMergeHand
     @Override
     protected final State run(State pre) {
         TraceTimer.traceBegin(traceId());
+        DclareEvents.SlowAction slowActionEvent = new DclareEvents.SlowAction();
+        ActionProfiler          profiler        = universeTransaction().profiler();
+        Action<?>               action          = profiler != null ? action() : null;
+        long                    t0              = profiler != null ? System.nanoTime() : 0L;
+        long                    allocated       = profiler != null ? profiler.allocatedBytes() : 0L;
+        slowActionEvent.begin();
         preState = pre;
         currentState.init(pre);
         try {
             LeafTransaction.getContext().run(this, () -> {
                 run(pre, universeTransaction());
+                if (!changeIds.isEmpty()) {
+                    currentState.change(this::stampChangeIds);
+                }
                 if (universeTransaction().getConfig().isTraceActions()) {
                     postState = currentState.merge();
                     Map<Object, Map<Setable, Pair<Object, Object>>> diff = preState.diff(postState, o -> o instanceof Mutable, s -> s instanceof Observed /* && !s.isPlumbing() */).asMap(e -> e);
                     if (!diff.isEmpty()) {
-                        runNonObserving(() -> System.err.println(DclareTrace.getLineStart("DCLARE", this) + mutable() + "." + action() + " (" + postState.shortDiffString(diff, mutable()) + ")"));
+                        runNonObserving(() -> trace("DCLARE", mutable() + "." + action() + " (" + postState.shortDiffString(diff, mutable()) + ")"));
                     }
                 } else {
                     postState = currentState.result();
@@ -78,8 +89,13 @@ public class ActionTransaction extends LeafTransaction implements StateMergeHand
             return pre;
         } finally {
             currentState.clear();
+            changeIds.clear();
             preState = null;
             postState = null;
+            if (profiler != null) {
+                profiler.run(action, System.nanoTime() - t0, profiler.allocatedBytes() - allocated);
+            }
+            slowActionEvent.end(action(), mutable());
             TraceTimer.traceEnd(traceId());
         }
     }
@@ -112,6 +128,7 @@ public class ActionTransaction extends LeafTransaction implements StateMergeHand
     protected void rollback() {
         currentState.clear();
         currentState.init(preState);
+        changeIds.clear();
     }
 
     @Override
@@ -177,23 +194,40 @@ public class ActionTransaction extends LeafTransaction implements StateMergeHand
                 if (!action().equals(observer) || !source.equals(target)) {
                     trigger(target, observer, observer.initPriority());
                     if (universeTransaction().getConfig().isTraceMutable()) {
-                        runNonObserving(() -> System.err.println(DclareTrace.getLineStart("DCLARE", this) + mutable() + "." + action() + " (TRIGGER " + target + "." + observer + ")"));
+                        runNonObserving(() -> trace("DCLARE", mutable() + "." + action() + " (TRIGGER " + target + "." + observer + ")"));
                     }
                 }
             }
         }
     }
 
+    /**
+     * Collects the {@link Mutable#D_CHANGE_ID} stamps of the changed object and its ancestors. The walk is done against the
+     * containment at the moment of the change, but the stamps are only written to the state once, at the end of the
+     * transaction (see {@link #stampChangeIds(State)}). The stamps of the running transaction are not read by anyone else
+     * before that.
+     */
     private <O, T> void setChanged(O object, Setable<O, T> setable, T postValue) {
         TransactionId txid = action().preserved() ? universeTransaction().setPreserved(object, setable, postValue, action()) : current().transactionId();
         for (Mutable changed = (Mutable) object; changed != null && !(changed instanceof Universe); changed = dParent(changed)) {
-            TransactionId old = current(changed, Mutable.D_CHANGE_ID);
+            TransactionId pending = changeIds.get(changed);
+            TransactionId old = pending != null ? pending : current(changed, Mutable.D_CHANGE_ID);
             if (old != null && txid.number() <= old.number()) {
                 break;
             } else {
-                set(changed, Mutable.D_CHANGE_ID, txid);
+                changeIds.merge(changed, txid, (a, b) -> a.number() >= b.number() ? a : b);
+            }
+        }
+    }
+
+    private State stampChangeIds(State state) {
+        for (java.util.Map.Entry<Mutable, TransactionId> e : changeIds.entrySet()) {
+            TransactionId old = state.get(e.getKey(), Mutable.D_CHANGE_ID);
+            if (old == null || old.number() < e.getValue().number()) {
+                state = state.set(e.getKey(), Mutable.D_CHANGE_ID, e.getValue());
             }
         }
+        return state;
     }
 
     private final class CurrentState extends Concurrent<State> {
@@ -0,0 +1,310 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+// (C) Copyright 2018-2023 Modeling Value Group B.V. (http://modelingvalue.org)                                        ~
+//                                                                                                                     ~
+// Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in      ~
+// compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0  ~
+// Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on ~
+// an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the  ~
+// specific language governing permissions and limitations under the License.                                          ~
+//                                                                                                                     ~
+// Maintainers:                                                                                                        ~
+//     Wim Bast, Tom Brus, Ronald Krijgsheld                                                                           ~
+// Contributors:                                                                                                       ~
+//     Arjan Kok, Carel Bast                                                                                           ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.dclare;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.modelingvalue.collections.util.ContextThread;
+
+/**
+ * A {@link TraceSink} that does not block the transactions that trace. Every trace line is stored as an event in a
+ * bounded lock free ring buffer, a daemon thread formats and writes the events. The events in the ring buffer are
+ * allocated once and reused, the start of the line is only formatted by the daemon thread. When the ring buffer is full
+ * the event is dropped and counted, see {@link #getNrOfDropped()}.
+ * <p>
+ * The message itself is still made by the transaction, because the toString() of a {@link Mutable} can read state.
+ * <p>
+ * Events are either written as text lines to a {@link PrintStream} or as binary records to a file, that can be printed
+ * later with {@link #print(Path, PrintStream)}.
+ */
+public class AsyncTraceSink implements TraceSink, Closeable {
+    private static final int  PARK_NANOS = 1_000_000;
+
+    private final Event[]     events;
+    private final int         mask;
+    private final AtomicLong  head       = new AtomicLong();
+    private final AtomicLong  dropped    = new AtomicLong();
+    private final Output      output;
+    private final Thread      daemon;
+    private long              tail;
+    private volatile boolean  stop;
+
+    public static AsyncTraceSink of(PrintStream out, int capacity) {
+        return new AsyncTraceSink(new TextOutput(out), capacity);
+    }
+
+    public static AsyncTraceSink of(Path binaryFile, int capacity) {
+        try {
+            return new AsyncTraceSink(new BinaryOutput(new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(binaryFile)))), capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    protected AsyncTraceSink(Output output, int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.events = new Event[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            events[i] = new Event(i);
+        }
+        this.output = output;
+        this.daemon = new Thread(this::drain, "dclare-trace");
+        daemon.setDaemon(true);
+        daemon.start();
+    }
+
+    @Override
+    public void trace(String tag, Transaction tx, String message) {
+        long  pos;
+        Event event;
+        while (true) {
+            pos = head.get();
+            event = events[(int) (pos & mask)];
+            long dif = event.sequence - pos;
+            if (dif == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+            } else if (dif < 0) {
+                dropped.incrementAndGet();
+                return;
+            }
+        }
+        event.nanos = System.nanoTime();
+        event.tag = tag;
+        event.threadNr = ContextThread.getNr();
+        event.txType = tx != null ? tx.getCurrentTypeForTrace() : null;
+        event.depth = tx != null ? tx.depth() : 0;
+        event.message = message;
+        event.sequence = pos + 1;
+    }
+
+    public long getNrOfDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Writes all events that are traced before the close, then stops the daemon thread and closes the output.
+     */
+    @Override
+    public void close() {
+        stop = true;
+        LockSupport.unpark(daemon);
+        try {
+            daemon.join();
+        } catch (InterruptedException e) {
+            throw new Error(e);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                boolean stopping = stop;
+                if (!writeAvailable()) {
+                    output.flush();
+                    if (stopping) {
+                        break;
+                    }
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+            }
+            output.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean writeAvailable() throws IOException {
+        boolean written = false;
+        while (true) {
+            Event event = events[(int) (tail & mask)];
+            if (event.sequence != tail + 1) {
+                return written;
+            }
+            output.write(event);
+            event.tag = null;
+            event.message = null;
+            event.sequence = tail + events.length;
+            tail++;
+            written = true;
+        }
+    }
+
+    /**
+     * Prints a binary trace file as text lines.
+     *
+     * @param binaryFile the file written by an {@link AsyncTraceSink} made by {@link #of(Path, int)}
+     * @param out        the stream to print to
+     */
+    public static void print(Path binaryFile, PrintStream out) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(binaryFile)))) {
+            Event event = new Event(0);
+            while (BinaryOutput.read(in, event)) {
+                TextOutput.print(out, event);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    protected static final class Event {
+        private volatile long sequence;
+        private long          nanos;
+        private String        tag;
+        private int           threadNr;
+        private String        txType;
+        private int           depth;
+        private String        message;
+
+        private Event(long sequence) {
+            this.sequence = sequence;
+        }
+
+        public long nanos() {
+            return nanos;
+        }
+
+        public String tag() {
+            return tag;
+        }
+
+        public int threadNr() {
+            return threadNr;
+        }
+
+        public String txType() {
+            return txType;
+        }
+
+        public int depth() {
+            return depth;
+        }
+
+        public String message() {
+            return message;
+        }
+    }
+
+    protected interface Output extends Closeable {
+        void write(Event event) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private static final class TextOutput implements Output {
+        private final PrintStream out;
+
+        private TextOutput(PrintStream out) {
+            this.out = out;
+        }
+
+        private static void print(PrintStream out, Event event) {
+            out.println(DclareTrace.getLineStart(event.tag, event.threadNr, event.txType, event.depth) + event.message);
+        }
+
+        @Override
+        public void write(Event event) {
+            print(out, event);
+        }
+
+        @Override
+        public void flush() {
+            out.flush();
+        }
+
+        @Override
+        public void close() {
+            out.flush();
+        }
+    }
+
+    private static final class BinaryOutput implements Output {
+        private final DataOutputStream out;
+
+        private BinaryOutput(DataOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(Event event) throws IOException {
+            out.writeLong(event.nanos);
+            writeString(event.tag);
+            out.writeInt(event.threadNr);
+            writeString(event.txType);
+            out.writeInt(event.depth);
+            writeString(event.message);
+        }
+
+        private void writeString(String s) throws IOException {
+            if (s == null) {
+                out.writeInt(-1);
+            } else {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        private static boolean read(DataInputStream in, Event event) throws IOException {
+            try {
+                event.nanos = in.readLong();
+            } catch (EOFException e) {
+                return false;
+            }
+            event.tag = readString(in);
+            event.threadNr = in.readInt();
+            event.txType = readString(in);
+            event.depth = in.readInt();
+            event.message = readString(in);
+            return true;
+        }
+
+        private static String readString(DataInputStream in) throws IOException {
+            int length = in.readInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,320 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+// (C) Copyright 2018-2023 Modeling Value Group B.V. (http://modelingvalue.org)                                        ~
+//                                                                                                                     ~
+// Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in      ~
+// compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0  ~
+// Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on ~
+// an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the  ~
+// specific language governing permissions and limitations under the License.                                          ~
+//                                                                                                                     ~
+// Maintainers:                                                                                                        ~
+//     Wim Bast, Tom Brus, Ronald Krijgsheld                                                                           ~
+// Contributors:                                                                                                       ~
+//     Arjan Kok, Carel Bast                                                                                           ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.dclare;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+import org.modelingvalue.collections.DefaultMap;
+import org.modelingvalue.collections.Entry;
+import org.modelingvalue.collections.List;
+import org.modelingvalue.collections.Map;
+import org.modelingvalue.collections.Set;
+import org.modelingvalue.collections.util.Pair;
+import org.modelingvalue.dclare.sync.JsonIC;
+import org.modelingvalue.dclare.sync.SerializationHelper;
+import org.modelingvalue.dclare.sync.WorkDaemon;
+
+/**
+ * An append only log of all changes committed by a {@link UniverseTransaction}, from which the state can be recovered
+ * after a crash with {@link #recover(Path, SerializationHelper)}.
+ * <p>
+ * The log is registered as diff handler and as time travel handler: every cycle of the universe, including the steps
+ * {@link UniverseTransaction#backward()} and {@link UniverseTransaction#forward()}, only queues the pre and post {@link State}. The delta
+ * between them is computed, serialized and appended by a daemon thread. All deltas that are waiting when the daemon writes
+ * are forced to disk with one fsync (group commit). After a configurable number of deltas the log is compacted: the last
+ * state is written as {@link StateSnapshot} and the log is truncated. Every record is a complete new value for the
+ * properties that changed, so replaying a log on a newer snapshot gives the same result.
+ * <p>
+ * Only the non plumbing properties and the {@link Mutable#D_PARENT_CONTAINING} are logged, the rest is derived again when
+ * the {@link UniverseTransaction} starts with the recovered {@link StateMap}.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class ChangeLog implements StateDeltaHandler, Closeable {
+    public static final String                      LOG_FILE_NAME      = "changes.log";
+    public static final String                      SNAPSHOT_FILE_NAME = "snapshot.state";
+    private static final int                        MAX_QUEUED         = Integer.getInteger("CHANGE_LOG_MAX_QUEUED", 1024);
+    private static final Pair<State, State>         STOP               = Pair.of(null, null);
+
+    private final Path                              directory;
+    private final SerializationHelper               helper;
+    private final int                               compactAfter;
+    private final FileChannel                       channel;
+    private final BlockingQueue<Pair<State, State>> queue              = new LinkedBlockingQueue<>(MAX_QUEUED);
+    private final LogDaemon                         daemon;
+    private int                                     nrOfRecords;
+
+    /**
+     * @param name         the name of the log, used for the diff handler and the daemon thread
+     * @param tx           the universe to log
+     * @param helper       the helper that serializes the {@link Mutable}s, {@link Setable}s and values
+     * @param directory    the directory of the log and the snapshot
+     * @param compactAfter the number of deltas after which the log is compacted into a snapshot
+     */
+    public ChangeLog(String name, UniverseTransaction tx, SerializationHelper<?, ?, ?> helper, Path directory, int compactAfter) {
+        this.directory = directory;
+        this.helper = helper;
+        this.compactAfter = compactAfter;
+        try {
+            Files.createDirectories(directory);
+            Path  log     = directory.resolve(LOG_FILE_NAME);
+            int[] records = {0};
+            long  valid   = Files.exists(log) ? readRecords(log, r -> records[0]++) : 0;
+            channel = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            channel.truncate(valid);
+            nrOfRecords = records[0];
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        daemon = new LogDaemon("change-log-" + name);
+        daemon.start();
+        tx.addDiffHandler(name, this);
+        tx.addTimeTravelHandler(this);
+    }
+
+    @Override
+    public void handleDelta(State pre, State post, boolean inSync, DefaultMap<Object, Set<Setable>> setted) {
+        if (daemon.getThrowable() != null) {
+            throw new Error("change log failed", daemon.getThrowable());
+        }
+        if (pre != post) {
+            try {
+                queue.put(Pair.of(pre, post));
+            } catch (InterruptedException e) {
+                throw new Error(e);
+            }
+        }
+    }
+
+    public Throwable getThrowable() {
+        return daemon.getThrowable();
+    }
+
+    /**
+     * Writes all queued deltas, then stops the daemon and closes the log.
+     */
+    @Override
+    public void close() {
+        try {
+            queue.put(STOP);
+        } catch (InterruptedException e) {
+            throw new Error(e);
+        }
+        daemon.join_();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private class LogDaemon extends WorkDaemon<java.util.List<Pair<State, State>>> {
+        private LogDaemon(String name) {
+            super(name);
+        }
+
+        @Override
+        protected java.util.List<Pair<State, State>> waitForWork() throws InterruptedException {
+            java.util.List<Pair<State, State>> batch = new ArrayList<>();
+            batch.add(queue.take());
+            queue.drainTo(batch);
+            return batch;
+        }
+
+        @Override
+        protected void execute(java.util.List<Pair<State, State>> batch) {
+            try {
+                State last = null;
+                for (Pair<State, State> delta : batch) {
+                    if (delta == STOP) {
+                        close();
+                        break;
+                    }
+                    byte[] record = record(delta.a(), delta.b());
+                    if (record != null) {
+                        append(record);
+                        nrOfRecords++;
+                    }
+                    last = delta.b();
+                }
+                channel.force(false);
+                if (last != null && compactAfter > 0 && nrOfRecords >= compactAfter) {
+                    compact(last);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private byte[] record(State pre, State post) throws IOException {
+        Predicate<Object>  objectFilter  = o -> o instanceof Mutable && helper.mutableFilter().test(o);
+        Predicate<Setable> setableFilter = s -> s == Mutable.D_PARENT_CONTAINING || (!s.isPlumbing() && helper.setableFilter().test(s));
+        List<Entry<Object, Map<Setable, Pair<Object, Object>>>> diff = pre.diff(post, objectFilter, setableFilter).asList();
+        if (diff.isEmpty()) {
+            return null;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream      out   = new DataOutputStream(bytes);
+        out.writeInt(diff.size());
+        for (Entry<Object, Map<Setable, Pair<Object, Object>>> e : diff) {
+            Mutable mutable = (Mutable) e.getKey();
+            writeString(out, helper.serializeMutable(mutable));
+            out.writeInt(e.getValue().size());
+            for (Entry<Setable, Pair<Object, Object>> p : e.getValue()) {
+                if (p.getKey() == Mutable.D_PARENT_CONTAINING) {
+                    Pair<Mutable, Setable> pc = (Pair<Mutable, Setable>) p.getValue().b();
+                    writeString(out, "");
+                    out.writeInt(pc != null ? 1 : 0);
+                    if (pc != null) {
+                        writeString(out, helper.serializeMutable(pc.a()));
+                        writeString(out, helper.serializeSetable(pc.b()));
+                    }
+                } else {
+                    writeString(out, helper.serializeSetable(p.getKey()));
+                    writeString(out, JsonIC.toJson(helper.serializeValue(mutable, p.getKey(), p.getValue().b())));
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private void append(byte[] record) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Integer.BYTES + record.length);
+        buffer.putInt(record.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(record);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void compact(State state) throws IOException {
+        Path tmp = Files.createTempFile(directory, "snapshot", ".tmp");
+        StateSnapshot.write(tmp, "", state.getStateMap(), helper);
+        try (FileChannel c = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            c.force(true);
+        }
+        Files.move(tmp, directory.resolve(SNAPSHOT_FILE_NAME), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel.truncate(0);
+        channel.force(true);
+        nrOfRecords = 0;
+    }
+
+    /**
+     * Rebuild the state from the snapshot and the log in a directory. A partially written last record is ignored.
+     *
+     * @param directory the directory of the log and the snapshot
+     * @param helper    the helper that deserializes the {@link Mutable}s, {@link Setable}s and values
+     * @return the {@link StateMap} that can be used as start state of a {@link UniverseTransaction}
+     */
+    public static StateMap recover(Path directory, SerializationHelper<?, ?, ?> helper) {
+        try {
+            Path                                            snapshot = directory.resolve(SNAPSHOT_FILE_NAME);
+            Path                                            log      = directory.resolve(LOG_FILE_NAME);
+            DefaultMap<Object, DefaultMap<Setable, Object>> map      = Files.exists(snapshot) ? StateSnapshot.open(snapshot, helper).toStateMap().map() : StateMap.EMPTY_STATE_MAP.map();
+            if (Files.exists(log)) {
+                DefaultMap<Object, DefaultMap<Setable, Object>>[] result = new DefaultMap[]{map};
+                readRecords(log, r -> result[0] = apply(result[0], r, helper));
+                map = result[0];
+            }
+            return new StateMap(map);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the records of a log up to the first partially written or corrupt record.
+     *
+     * @return the length of the valid part of the log
+     */
+    private static long readRecords(Path log, Consumer<ByteBuffer> consumer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(log));
+        long       valid  = 0;
+        while (buffer.remaining() >= 2 * Integer.BYTES) {
+            int length = buffer.getInt();
+            int check  = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                break;
+            }
+            byte[] record = new byte[length];
+            buffer.get(record);
+            CRC32 crc = new CRC32();
+            crc.update(record);
+            if ((int) crc.getValue() != check) {
+                break;
+            }
+            consumer.accept(ByteBuffer.wrap(record));
+            valid = buffer.position();
+        }
+        return valid;
+    }
+
+    private static DefaultMap<Object, DefaultMap<Setable, Object>> apply(DefaultMap<Object, DefaultMap<Setable, Object>> map, ByteBuffer record, SerializationHelper helper) {
+        for (int n = record.getInt(); n > 0; n--) {
+            Mutable                     mutable = helper.deserializeMutable(readString(record));
+            DefaultMap<Setable, Object> props   = map.get(mutable);
+            for (int p = record.getInt(); p > 0; p--) {
+                String tag = readString(record);
+                if (tag.isEmpty()) {
+                    Pair<Mutable, Setable> pc = null;
+                    if (record.getInt() == 1) {
+                        Mutable parent = helper.deserializeMutable(readString(record));
+                        pc = Pair.of(parent, helper.deserializeSetable(helper.getMutableClass(parent), readString(record)));
+                    }
+                    props = StateMap.setProperties(mutable, props, Mutable.D_PARENT_CONTAINING, (Pair) pc);
+                } else {
+                    Setable setable = helper.deserializeSetable(helper.getMutableClass(mutable), tag);
+                    props = StateMap.setProperties(mutable, props, setable, helper.deserializeValue(mutable, setable, JsonIC.fromJson(readString(record))));
+                }
+            }
+            map = map.put(mutable, props);
+        }
+        return map;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -44,11 +44,43 @@ public class ConstantState {
                                                                              };
     private static final AtomicReferenceFieldUpdater<Constants, Map> UPDATOR = AtomicReferenceFieldUpdater.newUpdater(Constants.class, Map.class, "constants");
 
-    private final ReferenceQueue<Object>                             queue   = new ReferenceQueue<>();
     private final AtomicReference<QualifiedSet<Object, Constants>>   state   = new AtomicReference<>(QualifiedSet.of(Constants::object));
-    private final Thread                                             remover;
     private final String                                             name;
-    private boolean                                                  stopRequested;
+    private final Consumer<Throwable>                                errorHandler;
+    private volatile boolean                                         stopRequested;
+
+    /**
+     * One reference queue and one remover thread serve all constant states. Both are created when the first
+     * constants are registered, so universes that share a pool do not each hold a remover thread of their own.
+     */
+    private static final class Remover {
+        private static final ReferenceQueue<Object> QUEUE  = new ReferenceQueue<>();
+        private static final Thread                 THREAD = new Thread(Remover::run, "ConstantState.remover");
+
+        static {
+            THREAD.setDaemon(true);
+            THREAD.start();
+        }
+
+        private static void run() {
+            while (true) {
+                Constants<?> constants;
+                try {
+                    constants = ((Ref<?>) QUEUE.remove()).constants();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                ConstantState owner = constants.owner();
+                if (!owner.stopRequested) {
+                    try {
+                        owner.removeConstants(constants);
+                    } catch (Throwable t) {
+                        owner.errorHandler.accept(new Error("unexpected exception in ConstantState.remover Thread", t));
+                    }
+                }
+            }
+        }
+    }
 
     private static final class ConstantDepthOverflowException extends RuntimeException {
         private static final long            serialVersionUID = -6980064786088373917L;
@@ -135,7 +167,11 @@ public class ConstantState {
         }
 
         protected void upgradeStrongness(ReferenceType referenceType, O object) {
-            ref = referenceType == ReferenceType.soft ? new SoftRef(object, queue) : new DurableRef(object);
+            ref = referenceType == ReferenceType.soft ? new SoftRef(object, Remover.QUEUE) : new DurableRef(object);
+        }
+
+        private ConstantState owner() {
+            return ConstantState.this;
         }
 
         public ReferenceType referenceType() {
@@ -261,19 +297,7 @@ public class ConstantState {
 
     public ConstantState(String name, Consumer<Throwable> errorHandler) {
         this.name = name;
-        remover = new Thread(() -> {
-            while (!stopRequested) {
-                try {
-                    removeConstants(((Ref<?>) queue.remove()).constants());
-                } catch (InterruptedException e) {
-                    if (!stopRequested) {
-                        errorHandler.accept(new Error("unexpected exception in ConstantState.remover Thread", e));
-                    }
-                }
-            }
-        }, "ConstantState.remover");
-        remover.setDaemon(true);
-        remover.start();
+        this.errorHandler = errorHandler;
     }
 
     @Override
@@ -283,7 +307,6 @@ public class ConstantState {
 
     public void stop() {
         stopRequested = true;
-        remover.interrupt();
     }
 
     public <O, V> V get(LeafTransaction leafTransaction, O object, Constant<O, V> constant) {
@@ -310,6 +333,13 @@ public class ConstantState {
         return getConstants(leafTransaction, object, referenceType(constant)).set(leafTransaction, object, constant, deriver, element);
     }
 
+    /**
+     * @return the number of objects that have constants in this state, readable from any thread
+     */
+    public int size() {
+        return state.get().size();
+    }
+
     private <O, V> ReferenceType referenceType(Constant<O, V> constant) {
         return constant.isDurable() ? ReferenceType.durable : WEAK.get() ? ReferenceType.weak : ReferenceType.soft;
     }
@@ -320,7 +350,7 @@ public class ConstantState {
         Constants constants = prev.get(object);
         if (constants == null) {
             object = leafTransaction.state().canonical(object);
-            constants = new Constants<>(object, referenceType, queue);
+            constants = new Constants<>(object, referenceType, Remover.QUEUE);
             QualifiedSet<Object, Constants> next = prev.add(constants);
             Constants<O> now;
             while (!state.compareAndSet(prev, next)) {
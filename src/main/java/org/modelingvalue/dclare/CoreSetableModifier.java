@@ -25,5 +25,6 @@ public enum CoreSetableModifier implements SetableModifier<SetableModifier<?>> {
     doNotMerge,
     orphansAllowed,
     preserved,
-    doNotClear;
+    doNotClear,
+    indexed;
 }
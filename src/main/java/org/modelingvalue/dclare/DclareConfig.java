@@ -19,46 +19,65 @@ import java.util.Objects;
 
 @SuppressWarnings("unused")
 public class DclareConfig {
-    private static final int     MAX_TOTAL_NR_OF_CHANGES_DEFAULT = 10000;
-    private static final int     MAX_NR_OF_CHANGES_DEFAULT       = 20;
-    private static final int     MAX_NR_OF_OBSERVED_DEFAULT      = 1000;
-    private static final int     MAX_NR_OF_OBSERVERS_DEFAULT     = 1000;
-    private static final int     MAX_IN_IN_QUEUE_DEFAULT         = 100;
-    private static final int     MAX_NR_OF_HISTORY_DEFAULT       = 64;
+    private static final int     MAX_TOTAL_NR_OF_CHANGES_DEFAULT  = 10000;
+    private static final int     MAX_NR_OF_CHANGES_DEFAULT        = 20;
+    private static final int     MAX_NR_OF_OBSERVED_DEFAULT       = 1000;
+    private static final int     MAX_NR_OF_OBSERVERS_DEFAULT      = 1000;
+    private static final int     MAX_IN_IN_QUEUE_DEFAULT          = 100;
+    private static final int     MAX_NR_OF_HISTORY_DEFAULT        = 64;
+    private static final int     PARALLEL_MERGE_THRESHOLD_DEFAULT = 0;
 
     //============================================================================
-    private static final boolean DEV_MODE                        = Boolean.getBoolean("DEV_MODE");
-    private static final boolean CHECK_ORPHAN_STATE              = Boolean.getBoolean("CHECK_ORPHAN_STATE");
-    private static final boolean RUN_SEQUENTIAL                  = Boolean.getBoolean("RUN_SEQUENTIAL");
-    private static final boolean TRACE_UNIVERSE                  = Boolean.getBoolean("TRACE_UNIVERSE");
-    private static final boolean TRACE_MUTABLE                   = Boolean.getBoolean("TRACE_MUTABLE");
-    private static final boolean TRACE_MATCHING                  = Boolean.getBoolean("TRACE_MATCHING");
-    private static final boolean TRACE_ACTIONS                   = Boolean.getBoolean("TRACE_ACTIONS");
-    private static final boolean TRACE_RIPPLE_OUT                = Boolean.getBoolean("TRACE_RIPPLE_OUT");
-    private static final boolean TRACE_DERIVATION                = Boolean.getBoolean("TRACE_DERIVATION");
-    private static final int     MAX_TOTAL_NR_OF_CHANGES         = Integer.getInteger("MAX_TOTAL_NR_OF_CHANGES", MAX_TOTAL_NR_OF_CHANGES_DEFAULT);
-    private static final int     MAX_NR_OF_CHANGES               = Integer.getInteger("MAX_NR_OF_CHANGES", MAX_NR_OF_CHANGES_DEFAULT);
-    private static final int     MAX_NR_OF_OBSERVED              = Integer.getInteger("MAX_NR_OF_OBSERVED", MAX_NR_OF_OBSERVED_DEFAULT);
-    private static final int     MAX_NR_OF_OBSERVERS             = Integer.getInteger("MAX_NR_OF_OBSERVERS", MAX_NR_OF_OBSERVERS_DEFAULT);
-    private static final int     MAX_IN_IN_QUEUE                 = Integer.getInteger("MAX_IN_IN_QUEUE", MAX_IN_IN_QUEUE_DEFAULT);
-    private static final int     MAX_NR_OF_HISTORY               = Integer.getInteger("MAX_NR_OF_HISTORY", MAX_NR_OF_HISTORY_DEFAULT) + 3;
+    private static final boolean DEV_MODE                         = Boolean.getBoolean("DEV_MODE");
+    private static final boolean CHECK_ORPHAN_STATE               = Boolean.getBoolean("CHECK_ORPHAN_STATE");
+    private static final boolean RUN_SEQUENTIAL                   = Boolean.getBoolean("RUN_SEQUENTIAL");
+    private static final boolean TRACE_UNIVERSE                   = Boolean.getBoolean("TRACE_UNIVERSE");
+    private static final boolean TRACE_MUTABLE                    = Boolean.getBoolean("TRACE_MUTABLE");
+    private static final boolean TRACE_MATCHING                   = Boolean.getBoolean("TRACE_MATCHING");
+    private static final boolean TRACE_ACTIONS                    = Boolean.getBoolean("TRACE_ACTIONS");
+    private static final boolean TRACE_RIPPLE_OUT                 = Boolean.getBoolean("TRACE_RIPPLE_OUT");
+    private static final boolean TRACE_DERIVATION                 = Boolean.getBoolean("TRACE_DERIVATION");
+    private static final int     MAX_TOTAL_NR_OF_CHANGES          = Integer.getInteger("MAX_TOTAL_NR_OF_CHANGES", MAX_TOTAL_NR_OF_CHANGES_DEFAULT);
+    private static final int     MAX_NR_OF_CHANGES                = Integer.getInteger("MAX_NR_OF_CHANGES", MAX_NR_OF_CHANGES_DEFAULT);
+    private static final int     MAX_NR_OF_OBSERVED               = Integer.getInteger("MAX_NR_OF_OBSERVED", MAX_NR_OF_OBSERVED_DEFAULT);
+    private static final int     MAX_NR_OF_OBSERVERS              = Integer.getInteger("MAX_NR_OF_OBSERVERS", MAX_NR_OF_OBSERVERS_DEFAULT);
+    private static final int     MAX_IN_IN_QUEUE                  = Integer.getInteger("MAX_IN_IN_QUEUE", MAX_IN_IN_QUEUE_DEFAULT);
+    private static final int     MAX_NR_OF_HISTORY                = Integer.getInteger("MAX_NR_OF_HISTORY", MAX_NR_OF_HISTORY_DEFAULT) + 3;
+    private static final boolean PROFILING                        = Boolean.getBoolean("PROFILING");
+    private static final boolean ANCESTOR_INDEX                   = Boolean.getBoolean("ANCESTOR_INDEX");
+    private static final boolean EXTENT_INDEX                     = Boolean.getBoolean("EXTENT_INDEX");
+    private static final int     PARALLEL_MERGE_THRESHOLD         = Integer.getInteger("PARALLEL_MERGE_THRESHOLD", PARALLEL_MERGE_THRESHOLD_DEFAULT);
+    private static final int     MAIN_LOOP_QUANTUM                = Integer.getInteger("MAIN_LOOP_QUANTUM", 0);
+    private static final int     LANE_STARVATION_LIMIT            = Integer.getInteger("LANE_STARVATION_LIMIT", 8);
+    private static final boolean PARALLEL_COMMIT                  = Boolean.getBoolean("PARALLEL_COMMIT");
+    private static final int     TRACE_RING_SIZE                  = Integer.getInteger("TRACE_RING_SIZE", 0);
 
     //============================================================================
-    private final boolean        devMode;
-    private final boolean        checkOrphanState;
-    private final boolean        runSequential;
-    private final boolean        traceUniverse;
-    private final boolean        traceMutable;
-    private final boolean        traceMatching;
-    private final boolean        traceActions;
-    private final boolean        traceRippleOut;
-    private final boolean        traceDerivation;
-    private final int            maxInInQueue;
-    private final int            maxTotalNrOfChanges;
-    private final int            maxNrOfChanges;
-    private final int            maxNrOfObserved;
-    private final int            maxNrOfObservers;
-    private final int            maxNrOfHistory;
+    private final boolean          devMode;
+    private final boolean          checkOrphanState;
+    private final boolean          runSequential;
+    private final boolean          traceUniverse;
+    private final boolean          traceMutable;
+    private final boolean          traceMatching;
+    private final boolean          traceActions;
+    private final boolean          traceRippleOut;
+    private final boolean          traceDerivation;
+    private final int              maxInInQueue;
+    private final int              maxTotalNrOfChanges;
+    private final int              maxNrOfChanges;
+    private final int              maxNrOfObserved;
+    private final int              maxNrOfObservers;
+    private final int              maxNrOfHistory;
+    private final TraceSink        traceSink;
+    private final boolean          profiling;
+    private final OrderingStrategy orderingStrategy;
+    private final boolean          ancestorIndex;
+    private final boolean          extentIndex;
+    private final int              parallelMergeThreshold;
+    private final int              mainLoopQuantum;
+    private final int              laneStarvationLimit;
+    private final boolean          parallelCommit;
+    private final int              traceRingSize;
 
     //============================================================================
     public DclareConfig() {
@@ -77,9 +96,19 @@ public class DclareConfig {
         this.maxNrOfObserved = MAX_NR_OF_OBSERVED;
         this.maxNrOfObservers = MAX_NR_OF_OBSERVERS;
         this.maxNrOfHistory = MAX_NR_OF_HISTORY;
-    }
-
-    protected DclareConfig(boolean devMode, boolean checkOrphanState, boolean runSequential, boolean traceUniverse, boolean traceMutable, boolean traceMatching, boolean traceActions, boolean traceRippleOut, boolean traceDerivation, int maxInInQueue, int maxTotalNrOfChanges, int maxNrOfChanges, int maxNrOfObserved, int maxNrOfObservers, int maxNrOfHistory) {
+        this.traceSink = TraceSink.SYSTEM_ERR;
+        this.profiling = PROFILING;
+        this.orderingStrategy = OrderingStrategy.RANDOM;
+        this.ancestorIndex = ANCESTOR_INDEX;
+        this.extentIndex = EXTENT_INDEX;
+        this.parallelMergeThreshold = PARALLEL_MERGE_THRESHOLD;
+        this.mainLoopQuantum = MAIN_LOOP_QUANTUM;
+        this.laneStarvationLimit = LANE_STARVATION_LIMIT;
+        this.parallelCommit = PARALLEL_COMMIT;
+        this.traceRingSize = TRACE_RING_SIZE;
+    }
+
+    protected DclareConfig(boolean devMode, boolean checkOrphanState, boolean runSequential, boolean traceUniverse, boolean traceMutable, boolean traceMatching, boolean traceActions, boolean traceRippleOut, boolean traceDerivation, int maxInInQueue, int maxTotalNrOfChanges, int maxNrOfChanges, int maxNrOfObserved, int maxNrOfObservers, int maxNrOfHistory, TraceSink traceSink, boolean profiling, OrderingStrategy orderingStrategy, boolean ancestorIndex, boolean extentIndex, int parallelMergeThreshold, int mainLoopQuantum, int laneStarvationLimit, boolean parallelCommit, int traceRingSize) {
         this.devMode = devMode;
         this.checkOrphanState = checkOrphanState;
         this.runSequential = runSequential;
@@ -95,10 +124,20 @@ public class DclareConfig {
         this.maxNrOfObserved = maxNrOfObserved;
         this.maxNrOfObservers = maxNrOfObservers;
         this.maxNrOfHistory = maxNrOfHistory;
+        this.traceSink = traceSink;
+        this.profiling = profiling;
+        this.orderingStrategy = orderingStrategy;
+        this.ancestorIndex = ancestorIndex;
+        this.extentIndex = extentIndex;
+        this.parallelMergeThreshold = parallelMergeThreshold;
+        this.mainLoopQuantum = mainLoopQuantum;
+        this.laneStarvationLimit = laneStarvationLimit;
+        this.parallelCommit = parallelCommit;
+        this.traceRingSize = traceRingSize;
     }
 
-    protected DclareConfig create(boolean devMode, boolean checkOrphanState, boolean runSequential, boolean traceUniverse, boolean traceMutable, boolean traceMatching, boolean traceActions, boolean traceRippleOut, boolean traceDerivation, int maxInInQueue, int maxTotalNrOfChanges, int maxNrOfChanges, int maxNrOfObserved, int maxNrOfObservers, int maxNrOfHistory) {
-        return new DclareConfig(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory);
+    protected DclareConfig create(boolean devMode, boolean checkOrphanState, boolean runSequential, boolean traceUniverse, boolean traceMutable, boolean traceMatching, boolean traceActions, boolean traceRippleOut, boolean traceDerivation, int maxInInQueue, int maxTotalNrOfChanges, int maxNrOfChanges, int maxNrOfObserved, int maxNrOfObservers, int maxNrOfHistory, TraceSink traceSink, boolean profiling, OrderingStrategy orderingStrategy, boolean ancestorIndex, boolean extentIndex, int parallelMergeThreshold, int mainLoopQuantum, int laneStarvationLimit, boolean parallelCommit, int traceRingSize) {
+        return new DclareConfig(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
     }
 
     //============================================================================
@@ -111,12 +150,12 @@ public class DclareConfig {
             return false;
         }
         DclareConfig that = (DclareConfig) o;
-        return devMode == that.devMode && checkOrphanState == that.checkOrphanState && runSequential == that.runSequential && traceUniverse == that.traceUniverse && traceMutable == that.traceMutable && traceMatching == that.traceMatching && traceActions == that.traceActions && traceRippleOut == that.traceRippleOut && traceDerivation == that.traceDerivation && maxInInQueue == that.maxInInQueue && maxTotalNrOfChanges == that.maxTotalNrOfChanges && maxNrOfChanges == that.maxNrOfChanges && maxNrOfObserved == that.maxNrOfObserved && maxNrOfObservers == that.maxNrOfObservers && maxNrOfHistory == that.maxNrOfHistory;
+        return devMode == that.devMode && checkOrphanState == that.checkOrphanState && runSequential == that.runSequential && traceUniverse == that.traceUniverse && traceMutable == that.traceMutable && traceMatching == that.traceMatching && traceActions == that.traceActions && traceRippleOut == that.traceRippleOut && traceDerivation == that.traceDerivation && maxInInQueue == that.maxInInQueue && maxTotalNrOfChanges == that.maxTotalNrOfChanges && maxNrOfChanges == that.maxNrOfChanges && maxNrOfObserved == that.maxNrOfObserved && maxNrOfObservers == that.maxNrOfObservers && maxNrOfHistory == that.maxNrOfHistory && Objects.equals(traceSink, that.traceSink) && profiling == that.profiling && Objects.equals(orderingStrategy, that.orderingStrategy) && ancestorIndex == that.ancestorIndex && extentIndex == that.extentIndex && parallelMergeThreshold == that.parallelMergeThreshold && mainLoopQuantum == that.mainLoopQuantum && laneStarvationLimit == that.laneStarvationLimit && parallelCommit == that.parallelCommit && traceRingSize == that.traceRingSize;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory);
+        return Objects.hash(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
     }
 
     //============================================================================
@@ -126,63 +165,103 @@ public class DclareConfig {
     //
 
     public DclareConfig withDevMode(boolean devMode) {
-        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory);
+        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
     }
 
     public DclareConfig withCheckOrphanState(boolean checkOrphanState) {
-        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory);
+        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
     }
 
     public DclareConfig withRunSequential(boolean runSequential) {
-        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory);
+        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
     }
 
     public DclareConfig withTraceUniverse(boolean traceUniverse) {
-        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory);
+        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
     }
 
     public DclareConfig withTraceMutable(boolean traceMutable) {
-        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory);
+        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
     }
 
     public DclareConfig withTraceMatching(boolean traceMatching) {
-        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory);
+        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
     }
 
     public DclareConfig withTraceActions(boolean traceActions) {
-        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory);
+        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
     }
 
     public DclareConfig withTraceRippleOut(boolean traceRippleOut) {
-        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory);
+        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
     }
 
     public DclareConfig withTraceDerivation(boolean traceDerivation) {
-        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory);
+        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
     }
 
     public DclareConfig withMaxInInQueue(int maxInInQueue) {
-        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory);
+        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
     }
 
     public DclareConfig withMaxTotalNrOfChanges(int maxTotalNrOfChanges) {
-        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory);
+        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
     }
 
     public DclareConfig withMaxNrOfChanges(int maxNrOfChanges) {
-        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory);
+        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
     }
 
     public DclareConfig withMaxNrOfObserved(int maxNrOfObserved) {
-        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory);
+        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
     }
 
     public DclareConfig withMaxNrOfObservers(int maxNrOfObservers) {
-        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory);
+        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
     }
 
     public DclareConfig withMaxNrOfHistory(int maxNrOfHistory) {
-        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory);
+        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
+    }
+
+    public DclareConfig withTraceSink(TraceSink traceSink) {
+        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
+    }
+
+    public DclareConfig withProfiling(boolean profiling) {
+        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
+    }
+
+    public DclareConfig withOrderingStrategy(OrderingStrategy orderingStrategy) {
+        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
+    }
+
+    public DclareConfig withAncestorIndex(boolean ancestorIndex) {
+        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
+    }
+
+    public DclareConfig withExtentIndex(boolean extentIndex) {
+        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
+    }
+
+    public DclareConfig withParallelMergeThreshold(int parallelMergeThreshold) {
+        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
+    }
+
+    public DclareConfig withMainLoopQuantum(int mainLoopQuantum) {
+        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
+    }
+
+    public DclareConfig withLaneStarvationLimit(int laneStarvationLimit) {
+        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
+    }
+
+    public DclareConfig withParallelCommit(boolean parallelCommit) {
+        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
+    }
+
+    public DclareConfig withTraceRingSize(int traceRingSize) {
+        return create(devMode, checkOrphanState, runSequential, traceUniverse, traceMutable, traceMatching, traceActions, traceRippleOut, traceDerivation, maxInInQueue, maxTotalNrOfChanges, maxNrOfChanges, maxNrOfObserved, maxNrOfObservers, maxNrOfHistory, traceSink, profiling, orderingStrategy, ancestorIndex, extentIndex, parallelMergeThreshold, mainLoopQuantum, laneStarvationLimit, parallelCommit, traceRingSize);
     }
 
     //============================================================================
@@ -246,4 +325,44 @@ public class DclareConfig {
     public int getMaxNrOfHistory() {
         return maxNrOfHistory;
     }
+
+    public TraceSink getTraceSink() {
+        return traceSink;
+    }
+
+    public boolean isProfiling() {
+        return profiling;
+    }
+
+    public OrderingStrategy getOrderingStrategy() {
+        return orderingStrategy;
+    }
+
+    public boolean isAncestorIndex() {
+        return ancestorIndex;
+    }
+
+    public boolean isExtentIndex() {
+        return extentIndex;
+    }
+
+    public int getParallelMergeThreshold() {
+        return parallelMergeThreshold;
+    }
+
+    public int getMainLoopQuantum() {
+        return mainLoopQuantum;
+    }
+
+    public int getLaneStarvationLimit() {
+        return laneStarvationLimit;
+    }
+
+    public boolean isParallelCommit() {
+        return parallelCommit;
+    }
+
+    public int getTraceRingSize() {
+        return traceRingSize;
+    }
 }
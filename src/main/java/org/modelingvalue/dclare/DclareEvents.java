@@ -0,0 +1,132 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+// (C) Copyright 2018-2023 Modeling Value Group B.V. (http://modelingvalue.org)                                        ~
+//                                                                                                                     ~
+// Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in      ~
+// compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0  ~
+// Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on ~
+// an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the  ~
+// specific language governing permissions and limitations under the License.                                          ~
+//                                                                                                                     ~
+// Maintainers:                                                                                                        ~
+//     Wim Bast, Tom Brus, Ronald Krijgsheld                                                                           ~
+// Contributors:                                                                                                       ~
+//     Arjan Kok, Carel Bast                                                                                           ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.dclare;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * The JDK Flight Recorder events of dclare. The events are only committed when a recording is running that enables them
+ * and their duration exceeds the threshold, which can be changed in the recording settings. Without a recording the
+ * events cost almost nothing.
+ */
+public final class DclareEvents {
+    private static final String CATEGORY = "Dclare";
+
+    private DclareEvents() {
+    }
+
+    @Name("org.modelingvalue.dclare.Cycle")
+    @Label("Universe Cycle")
+    @Description("One cycle of the main loop of a universe, handling one action from the in-queue")
+    @Category(CATEGORY)
+    @Threshold("1 ms")
+    @StackTrace(false)
+    public static final class Cycle extends Event {
+        @Label("Universe")
+        String universe;
+        @Label("Action")
+        String action;
+        @Label("Run Count")
+        long   runCount;
+
+        void end(UniverseTransaction tx, Action<?> action) {
+            end();
+            if (shouldCommit()) {
+                this.universe = tx.toString();
+                this.action = String.valueOf(action);
+                this.runCount = tx.stats().runCount();
+                commit();
+            }
+        }
+    }
+
+    @Name("org.modelingvalue.dclare.Priority")
+    @Label("Priority Iteration")
+    @Description("One iteration of the priority loop of a universe cycle")
+    @Category(CATEGORY)
+    @Threshold("1 ms")
+    @StackTrace(false)
+    public static final class PriorityIteration extends Event {
+        @Label("Universe")
+        String universe;
+        @Label("Priority")
+        String priority;
+        @Label("Iteration")
+        int    iteration;
+
+        void end(UniverseTransaction tx, Priority priority, int iteration) {
+            end();
+            if (shouldCommit()) {
+                this.universe = tx.toString();
+                this.priority = priority.name();
+                this.iteration = iteration;
+                commit();
+            }
+        }
+    }
+
+    @Name("org.modelingvalue.dclare.Merge")
+    @Label("Merge")
+    @Description("The merge of the branch states of a mutable transaction")
+    @Category(CATEGORY)
+    @Threshold("1 ms")
+    @StackTrace(false)
+    public static final class Merge extends Event {
+        @Label("Mutable Class")
+        Class<?> mutableClass;
+        @Label("Branches")
+        int      branches;
+        @Label("Conflict")
+        boolean  conflict;
+
+        void end(Mutable mutable, int branches, boolean conflict) {
+            end();
+            if (shouldCommit()) {
+                this.mutableClass = mutable != null ? mutable.getClass() : null;
+                this.branches = branches;
+                this.conflict = conflict;
+                commit();
+            }
+        }
+    }
+
+    @Name("org.modelingvalue.dclare.SlowAction")
+    @Label("Slow Action")
+    @Description("A run of an action or observer that took longer than the threshold")
+    @Category(CATEGORY)
+    @Threshold("20 ms")
+    public static final class SlowAction extends Event {
+        @Label("Action")
+        String   action;
+        @Label("Mutable Class")
+        Class<?> mutableClass;
+
+        void end(Action<?> action, Mutable mutable) {
+            end();
+            if (shouldCommit()) {
+                this.action = String.valueOf(action);
+                this.mutableClass = mutable != null ? mutable.getClass() : null;
+                commit();
+            }
+        }
+    }
+}
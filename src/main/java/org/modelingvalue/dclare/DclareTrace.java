@@ -32,13 +32,17 @@ public class DclareTrace {
 
     //  produces a string like: "DCLARE__06_OB            "
     public static String getLineStart(String tag, Transaction current) {
+        return getLineStart(tag, ContextThread.getNr(), current != null ? current.getCurrentTypeForTrace() : null, current != null ? current.depth() : 0);
+    }
+
+    public static String getLineStart(String tag, int threadNr, String txType, int depth) {
         StringBuilder b = new StringBuilder(TRACE_BASE);
         superImpose(b, tag.length() <= TAG_LENGTH ? tag : tag.substring(0, TAG_LENGTH), 0);
-        superImpose(b, getThreadNum(ContextThread.getNr()), TAG_LENGTH + 1);
-        if (current != null) {
-            superImpose(b, current.getCurrentTypeForTrace(), TAG_LENGTH + 1 + THREAD_NUM_LENGTH + 1);
+        superImpose(b, getThreadNum(threadNr), TAG_LENGTH + 1);
+        if (txType != null) {
+            superImpose(b, txType, TAG_LENGTH + 1 + THREAD_NUM_LENGTH + 1);
         }
-        b.append(' ').append(getIndent(current != null ? current.depth() : 0));
+        b.append(' ').append(getIndent(depth));
         return b.toString();
     }
 
@@ -0,0 +1,81 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+// (C) Copyright 2018-2023 Modeling Value Group B.V. (http://modelingvalue.org)                                        ~
+//                                                                                                                     ~
+// Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in      ~
+// compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0  ~
+// Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on ~
+// an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the  ~
+// specific language governing permissions and limitations under the License.                                          ~
+//                                                                                                                     ~
+// Maintainers:                                                                                                        ~
+//     Wim Bast, Tom Brus, Ronald Krijgsheld                                                                           ~
+// Contributors:                                                                                                       ~
+//     Arjan Kok, Carel Bast                                                                                           ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.dclare;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.modelingvalue.dclare.sync.SerializationHelper;
+
+/**
+ * A {@link StateMapStore} that keeps every {@link StateMap} as a {@link StateSnapshot} in its own file in a directory.
+ * The hash of the model definitions is the label of the snapshot. {@link Mutable}s, {@link Setable}s and values are
+ * (de)serialized by the given {@link SerializationHelper}.
+ */
+public class FileStateMapStore implements StateMapStore {
+    private final Path                         directory;
+    private final SerializationHelper<?, ?, ?> helper;
+
+    public FileStateMapStore(Path directory, SerializationHelper<?, ?, ?> helper) {
+        this.directory = directory;
+        this.helper = helper;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    protected Path file(Class<?> key) {
+        return directory.resolve(key.getName() + ".state");
+    }
+
+    @Override
+    public StateMap load(Class<?> key, String hash) {
+        try {
+            StateSnapshot snapshot = StateSnapshot.open(file(key), helper);
+            return hash.equals(snapshot.label()) ? snapshot.toStateMap() : null;
+        } catch (NoSuchFileException | StateSnapshot.IncompatibleSnapshotException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void store(Class<?> key, String hash, StateMap stateMap) {
+        try {
+            Files.createDirectories(directory);
+            Path tmp = Files.createTempFile(directory, key.getSimpleName(), ".tmp");
+            StateSnapshot.write(tmp, hash, stateMap, helper);
+            Files.move(tmp, file(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void remove(Class<?> key) {
+        try {
+            Files.deleteIfExists(file(key));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
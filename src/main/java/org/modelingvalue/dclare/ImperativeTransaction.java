@@ -16,10 +16,12 @@
 package org.modelingvalue.dclare;
 
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.UnaryOperator;
 
+import org.modelingvalue.collections.Collection;
 import org.modelingvalue.collections.DefaultMap;
 import org.modelingvalue.collections.Entry;
 import org.modelingvalue.collections.Set;
@@ -44,13 +46,32 @@ public class ImperativeTransaction extends LeafTransaction {
     private final NamedIdentity                               actionId;
     private final Direction                                   direction;
     private final MutableState                                state;
+    private final AtomicReference<PendingCommit>              pendingCommit = new AtomicReference<>();
 
+    private Lane                                              lane = Lane.interactive;
     private boolean                                           active;
     private boolean                                           commiting;
     @SuppressWarnings("rawtypes")
     private DefaultMap<Object, Set<Setable>>                  setted;
     @SuppressWarnings("rawtypes")
     private DefaultMap<Object, Set<Setable>>                  allSetted;
+    @SuppressWarnings("rawtypes")
+    private DefaultMap<Object, Set<Setable>>                  queuedSetted;
+    @SuppressWarnings("rawtypes")
+    private java.util.Map<Object, java.util.Set<Setable>>     bulk;
+    private MutableState                                      bulkState;
+
+    private static final class PendingCommit {
+        private final State             dclare;
+        private final boolean           timeTraveling;
+        private final Consumer<Boolean> insync;
+
+        private PendingCommit(State dclare, boolean timeTraveling, Consumer<Boolean> insync) {
+            this.dclare = dclare;
+            this.timeTraveling = timeTraveling;
+            this.insync = insync;
+        }
+    }
 
     @SuppressWarnings("rawtypes")
     protected ImperativeTransaction(Imperative cls, State init, UniverseTransaction universeTransaction, Consumer<Runnable> scheduler, StateDeltaHandler diffHandler, boolean keepTransaction) {
@@ -58,6 +79,7 @@ public class ImperativeTransaction extends LeafTransaction {
         this.state = universeTransaction.createMutableState(init);
         this.setted = SETTED_MAP;
         this.allSetted = SETTED_MAP;
+        this.queuedSetted = SETTED_MAP;
         this.diffHandler = diffHandler;
         this.direction = Direction.of(cls.id());
         this.actionId = NamedIdentity.of(this, cls.id().toString());
@@ -97,9 +119,51 @@ public class ImperativeTransaction extends LeafTransaction {
         scheduler.accept(action);
     }
 
+    /**
+     * Schedules the given changes as one {@link #bulk(Runnable)}.
+     */
+    public void scheduleBulk(Runnable changes) {
+        scheduler.accept(() -> bulk(changes));
+    }
+
+    /**
+     * Runs the given changes, on the thread of this transaction, as one batch. The changes are made in a private copy of
+     * the state, that only this transaction reads, and the changed properties are collected in a plain map. When the
+     * changes are done, the copy is published as the new state at once, with one CHANGE_NR increment and one commit
+     * request, and therefore one action that brings all of them to the dclare side. Nested bulks are part of the outer one.
+     */
+    @SuppressWarnings("rawtypes")
+    public void bulk(Runnable changes) {
+        if (bulk != null) {
+            changes.run();
+            return;
+        }
+        bulk = new java.util.LinkedHashMap<>();
+        bulkState = state.copy();
+        try {
+            changes.run();
+        } finally {
+            java.util.Map<Object, java.util.Set<Setable>> changed = bulk;
+            bulk = null;
+            state.publish(bulkState);
+            bulkState = null;
+            if (!changed.isEmpty()) {
+                boolean first = setted.isEmpty();
+                for (java.util.Map.Entry<Object, java.util.Set<Setable>> e : changed.entrySet()) {
+                    Set<Setable> set = Collection.of(e.getValue()).asSet();
+                    allSetted = allSetted.add(e.getKey(), set, Set::addAll);
+                    setted = setted.add(e.getKey(), set, Set::addAll);
+                }
+                if (first) {
+                    changed();
+                }
+            }
+        }
+    }
+
     @Override
     public State state() {
-        return state.state();
+        return target().state();
     }
 
     public State preState() {
@@ -110,6 +174,34 @@ public class ImperativeTransaction extends LeafTransaction {
         return state;
     }
 
+    /**
+     * Can be called from any thread, e.g. a metrics thread. It reads the last published state of this transaction through
+     * the atomic reference of its {@link MutableState}, never the private state of a running {@link #bulk(Runnable)}, and
+     * compares it with the given dclare state, which was read at another moment. The result is therefore approximate.
+     *
+     * @param dclare the latest state of the dclare side
+     * @return the number of imperative change batches that are not yet handled by the dclare side
+     */
+    public long lag(State dclare) {
+        State published = state.state();
+        return Math.max(0L, published.get(this, CHANGE_NR) - dclare.get(this, CHANGE_NR));
+    }
+
+    /**
+     * Schedules a commit of the given dclare state on the scheduler of this transaction and passes whether it was insync to
+     * the given consumer. A commit that is still waiting for the scheduler takes the latest state and consumer instead, so
+     * a slow consumer skips the states it could not keep up with, and only the consumer of the state that is committed is
+     * called.
+     */
+    public void scheduleCommit(State dclare, boolean timeTraveling, Consumer<Boolean> insync) {
+        if (pendingCommit.getAndSet(new PendingCommit(dclare, timeTraveling, insync)) == null) {
+            schedule(() -> {
+                PendingCommit latest = pendingCommit.getAndSet(null);
+                latest.insync.accept(commit(latest.dclare, latest.timeTraveling));
+            });
+        }
+    }
+
     public final boolean commit(State dclare, boolean timeTraveling) {
         commiting = true;
         boolean insync = setted.isEmpty() && dclare.get(this, CHANGE_NR).equals(state.get(this, CHANGE_NR));
@@ -148,12 +240,32 @@ public class ImperativeTransaction extends LeafTransaction {
         diffHandler.handleDelta(imper, dclare, insync, finalAllSetted);
     }
 
-    @SuppressWarnings({"rawtypes", "unchecked"})
+    /**
+     * Puts the changes in the universe with this transaction as supersession key. If the action of the previous changes is
+     * still queued, it is replaced by one action for both, applied from the latest imperative state, which holds the
+     * values of both. Only this method puts with this key, so a queued action with this key always is the one that
+     * applies queuedSetted.
+     */
+    @SuppressWarnings("rawtypes")
     private void imper2dclare() {
         State imper = state();
         DefaultMap<Object, Set<Setable>> finalSetted = setted;
+        DefaultMap<Object, Set<Setable>> previousSetted = queuedSetted;
         setted = SETTED_MAP;
-        universeTransaction().put(Action.of(actionId, u -> {
+        queuedSetted = finalSetted;
+        universeTransaction().put(lane, this, imper2dclare(imper, finalSetted), (queued, now) -> {
+            DefaultMap<Object, Set<Setable>> both = previousSetted;
+            for (Entry<Object, Set<Setable>> e : finalSetted) {
+                both = both.add(e.getKey(), e.getValue(), Set::addAll);
+            }
+            queuedSetted = both;
+            return imper2dclare(imper, both);
+        });
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private Action<Universe> imper2dclare(State imper, DefaultMap<Object, Set<Setable>> finalSetted) {
+        return Action.of(actionId, u -> {
             try {
                 finalSetted.forEachOrdered(e -> {
                     DefaultMap<Setable, Object> props = imper.getProperties(e.getKey());
@@ -172,7 +284,7 @@ public class ImperativeTransaction extends LeafTransaction {
                 CHANGE_NR.set(ImperativeTransaction.this, imper.get(ImperativeTransaction.this, CHANGE_NR));
                 universeTransaction().handleException(t);
             }
-        }, direction, LeafModifier.preserved));
+        }, direction, LeafModifier.preserved);
     }
 
     @Override
@@ -180,11 +292,15 @@ public class ImperativeTransaction extends LeafTransaction {
         set(target, state.actions(priority), Set::add, action);
     }
 
+    private MutableState target() {
+        return bulkState != null ? bulkState : state;
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public <O, T> T set(O object, Setable<O, T> property, T post) {
         T[] oldNew = (T[]) new Object[1];
-        state.set(object, property, post, oldNew);
+        target().set(object, property, post, oldNew);
         change(object, property, oldNew[0], post);
         return oldNew[0];
     }
@@ -193,7 +309,7 @@ public class ImperativeTransaction extends LeafTransaction {
     @Override
     public <O, T, E> T set(O object, Setable<O, T> property, BiFunction<T, E, T> function, E element) {
         T[] oldNew = (T[]) new Object[2];
-        state.set(object, property, function, element, oldNew);
+        target().set(object, property, function, element, oldNew);
         change(object, property, oldNew[0], oldNew[1]);
         return oldNew[0];
     }
@@ -202,7 +318,7 @@ public class ImperativeTransaction extends LeafTransaction {
     @Override
     public <O, T> T set(O object, Setable<O, T> property, UnaryOperator<T> oper) {
         T[] oldNew = (T[]) new Object[2];
-        state.set(object, property, oper, oldNew);
+        target().set(object, property, oper, oldNew);
         change(object, property, oldNew[0], oldNew[1]);
         return oldNew[0];
     }
@@ -210,23 +326,31 @@ public class ImperativeTransaction extends LeafTransaction {
     @SuppressWarnings("rawtypes")
     private <O, T> void change(O object, Setable<O, T> property, T preValue, T postValue) {
         if (!Objects.equals(preValue, postValue)) {
-            boolean first = setted.isEmpty();
-            Set<Setable> set = Set.of(property);
-            allSetted = allSetted.add(object, set, Set::addAll);
-            setted = setted.add(object, set, Set::addAll);
-            if (first) {
-                set(this, CHANGE_NR, (BiFunction<Long, Long, Long>) Long::sum, 1l);
-                if (!commiting) {
-                    if (!active) {
-                        active = true;
-                        universeTransaction().addActive(this);
-                    }
-                    universeTransaction().commit();
+            if (bulk != null) {
+                bulk.computeIfAbsent(object, o -> new java.util.HashSet<>()).add(property);
+            } else {
+                boolean first = setted.isEmpty();
+                Set<Setable> set = Set.of(property);
+                allSetted = allSetted.add(object, set, Set::addAll);
+                setted = setted.add(object, set, Set::addAll);
+                if (first) {
+                    changed();
                 }
             }
         }
     }
 
+    private void changed() {
+        set(this, CHANGE_NR, (BiFunction<Long, Long, Long>) Long::sum, 1l);
+        if (!commiting) {
+            if (!active) {
+                active = true;
+                universeTransaction().addActive(this);
+            }
+            universeTransaction().commit();
+        }
+    }
+
     @Override
     protected State run(State state) {
         throw new UnsupportedOperationException();
@@ -242,6 +366,18 @@ public class ImperativeTransaction extends LeafTransaction {
         return direction;
     }
 
+    public Lane lane() {
+        return lane;
+    }
+
+    /**
+     * Sets the lane of the universe inbound queue in which the changes of this transaction are put, default
+     * {@link Lane#interactive}.
+     */
+    public void setLane(Lane lane) {
+        this.lane = Objects.requireNonNull(lane);
+    }
+
     @Override
     protected String getCurrentTypeForTrace() {
         return "IM";
@@ -15,10 +15,241 @@
 
 package org.modelingvalue.dclare;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+
+import org.modelingvalue.collections.DefaultMap;
+import org.modelingvalue.collections.List;
+import org.modelingvalue.collections.Map;
+import org.modelingvalue.collections.Set;
+import org.modelingvalue.collections.util.Pair;
 import org.modelingvalue.dclare.sync.JsonIC.FromJsonIC;
 
+/**
+ * Reads json as rendered by {@link StateToJson} back into a {@link StateMap} that can be used as the start state of a
+ * {@link UniverseTransaction}. The {@link StateMap} is built while parsing: objects that represent {@link Mutable}s are
+ * never materialised as intermediate json maps. References ({@value StateToJson#ID_REF_FIELD_NAME}) to {@link Mutable}s
+ * that are not yet known are resolved when the parse is finished.
+ * <p>
+ * The {@link Universe} is the root of the json. All other {@link Mutable}s are created by {@link #makeMutable(String, Mutable, Setable)},
+ * which must be overridden by importers of json with {@link Mutable}s below the {@link Universe}.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
 public class JsonToState extends FromJsonIC {
-    public <U extends Universe> JsonToState(@SuppressWarnings("unused") U universe, String json) {
+    private final Universe                                                     universe;
+    private final Deque<Frame>                                                 frames  = new ArrayDeque<>();
+    private final java.util.Map<String, Mutable>                               ids     = new HashMap<>();
+    private final java.util.Map<MutableClass, java.util.Map<String, Setable>>  tags    = new HashMap<>();
+    private final java.util.List<Pending>                                      pending = new ArrayList<>();
+    private DefaultMap<Object, DefaultMap<Setable, Object>>                    map     = StateMap.EMPTY_STATE_MAP.map();
+
+    public <U extends Universe> JsonToState(U universe, String json) {
         super(json);
+        this.universe = universe;
+    }
+
+    public Universe getUniverse() {
+        return universe;
+    }
+
+    public StateMap toStateMap() {
+        parse();
+        for (Pending p : pending) {
+            Object value = resolve(p.value);
+            if (!isResolved(value)) {
+                throw new IllegalArgumentException("json import can not proceed: unknown " + StateToJson.ID_REF_FIELD_NAME + " in " + p.mutable + "." + p.setable);
+            }
+            map = map.put(p.mutable, StateMap.setProperties(p.mutable, map.get(p.mutable), p.setable, makeValue(p.mutable, p.setable, value)));
+        }
+        pending.clear();
+        return new StateMap(map);
+    }
+
+    protected Mutable makeMutable(String id, Mutable parent, Setable<Mutable, ?> containing) {
+        throw new IllegalArgumentException("json import can not proceed: no Mutable can be made for " + StateToJson.ID_FIELD_NAME + " " + id + " in " + parent + "." + containing);
+    }
+
+    protected String renderTag(Setable s) {
+        return s.id().toString();
+    }
+
+    protected Setable unknownTag(Mutable mutable, String tag) {
+        throw new IllegalArgumentException("json import can not proceed: no setable " + tag + " found in class " + mutable.dClass() + " of " + mutable);
+    }
+
+    protected Object makeValue(Mutable mutable, Setable setable, Object value) {
+        Object def = setable.getDefault(mutable);
+        if (value instanceof List && def instanceof Set) {
+            return ((List) value).asSet();
+        } else if (value instanceof Long && def instanceof Integer) {
+            return ((Long) value).intValue();
+        } else if (value instanceof Long && def instanceof Short) {
+            return ((Long) value).shortValue();
+        } else if (value instanceof Long && def instanceof Byte) {
+            return ((Long) value).byteValue();
+        } else if (value instanceof Double && def instanceof Float) {
+            return ((Double) value).floatValue();
+        } else {
+            return value;
+        }
+    }
+
+    @Override
+    protected Map<String, Object> makeMap() {
+        Frame top = frames.peek();
+        Frame frame;
+        if (top == null) {
+            frame = new Frame(null, null);
+            frame.identify(null);
+        } else if (top.isMutable() && top.setable != null && top.setable.containment()) {
+            frame = new Frame(top.mutable, top.setable);
+        } else {
+            frame = new Frame(null, null);
+            frame.plain = true;
+        }
+        frames.push(frame);
+        return frame.plain ? super.makeMap() : null;
+    }
+
+    @Override
+    protected String makeMapKey(String key) {
+        Frame top = frames.peek();
+        if (top != null && top.isMutable() && !StateToJson.ID_FIELD_NAME.equals(key)) {
+            if (top.mutable == null) {
+                top.identify(null);
+            }
+            top.setable = setable(top.mutable, key);
+        }
+        return super.makeMapKey(key).toString();
+    }
+
+    @Override
+    protected Map<String, Object> makeMapEntry(Map<String, Object> m, Object key, Object value) {
+        Frame top = frames.peek();
+        if (top.isMutable()) {
+            if (StateToJson.ID_FIELD_NAME.equals(key)) {
+                top.identify(value.toString());
+            } else {
+                top.set(value);
+            }
+            return null;
+        } else {
+            if (StateToJson.ID_REF_FIELD_NAME.equals(key)) {
+                top.ref = value.toString();
+            }
+            return super.makeMapEntry(m, key, value);
+        }
+    }
+
+    @Override
+    protected Object closeMap(Map<String, Object> m) {
+        Frame frame = frames.pop();
+        if (frame.isMutable()) {
+            if (frame.mutable == null) {
+                frame.identify(null);
+            }
+            map = map.put(frame.mutable, frame.props);
+            return frame.mutable;
+        } else if (frame.ref != null) {
+            Mutable mutable = ids.get(frame.ref);
+            return mutable != null ? mutable : new IdRef(frame.ref);
+        } else {
+            return super.closeMap(m);
+        }
+    }
+
+    private Setable setable(Mutable mutable, String tag) {
+        java.util.Map<String, Setable> setables = tags.computeIfAbsent(mutable.dClass(), c -> {
+            java.util.Map<String, Setable> result = new HashMap<>();
+            for (Setable s : (Iterable<Setable>) c.dSetables()) {
+                result.put(renderTag(s), s);
+            }
+            return result;
+        });
+        Setable setable = setables.get(tag);
+        return setable != null ? setable : unknownTag(mutable, tag);
+    }
+
+    private Object resolve(Object value) {
+        if (value instanceof IdRef ref) {
+            Mutable mutable = ids.get(ref.id);
+            return mutable != null ? mutable : ref;
+        } else if (value instanceof List) {
+            return ((List<Object>) value).map(this::resolve).asList();
+        } else {
+            return value;
+        }
+    }
+
+    private static boolean isResolved(Object value) {
+        if (value instanceof IdRef) {
+            return false;
+        } else if (value instanceof List) {
+            return ((List<Object>) value).allMatch(JsonToState::isResolved);
+        } else {
+            return true;
+        }
+    }
+
+    private final class Frame {
+        private final Mutable               parent;
+        private final Setable               containing;
+        private Mutable                     mutable;
+        private DefaultMap<Setable, Object> props;
+        private Setable                     setable;
+        private boolean                     plain;
+        private String                      ref;
+
+        private Frame(Mutable parent, Setable containing) {
+            this.parent = parent;
+            this.containing = containing;
+        }
+
+        private boolean isMutable() {
+            return !plain;
+        }
+
+        private void identify(String id) {
+            if (mutable == null) {
+                mutable = parent == null ? universe : makeMutable(id, parent, containing);
+                props = map.get(mutable);
+                if (parent != null) {
+                    props = StateMap.setProperties(mutable, props, Mutable.D_PARENT_CONTAINING, Pair.of(parent, containing));
+                }
+            }
+            if (id != null) {
+                ids.put(id, mutable);
+            }
+        }
+
+        private void set(Object value) {
+            if (isResolved(value)) {
+                props = StateMap.setProperties(mutable, props, setable, makeValue(mutable, setable, value));
+            } else {
+                pending.add(new Pending(mutable, setable, value));
+            }
+        }
+    }
+
+    private static final class Pending {
+        private final Mutable mutable;
+        private final Setable setable;
+        private final Object  value;
+
+        private Pending(Mutable mutable, Setable setable, Object value) {
+            this.mutable = mutable;
+            this.setable = setable;
+            this.value = value;
+        }
+    }
+
+    private static final class IdRef {
+        private final String id;
+
+        private IdRef(String id) {
+            this.id = id;
+        }
     }
 }
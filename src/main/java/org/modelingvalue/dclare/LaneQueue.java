@@ -0,0 +1,449 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+// (C) Copyright 2018-2023 Modeling Value Group B.V. (http://modelingvalue.org)                                        ~
+//                                                                                                                     ~
+// Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in      ~
+// compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0  ~
+// Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on ~
+// an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the  ~
+// specific language governing permissions and limitations under the License.                                          ~
+//                                                                                                                     ~
+// Maintainers:                                                                                                        ~
+//     Wim Bast, Tom Brus, Ronald Krijgsheld                                                                           ~
+// Contributors:                                                                                                       ~
+//     Arjan Kok, Carel Bast                                                                                           ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.dclare;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BinaryOperator;
+
+/**
+ * A bounded blocking queue with a FIFO per {@link Lane}. Elements are taken from the highest lane that is not empty,
+ * unless a lower lane has been passed the starvation limit number of times while it was not empty; then the highest of
+ * those starving lanes goes first. Elements that are put without a lane go into the default lane.
+ * <p>
+ * Elements put with {@link #putBehind(Object)} are in no lane. They are taken as soon as every element that was in the queue
+ * when they were put is taken, so they keep their FIFO position relative to all lanes. Elements put later may pass them.
+ * <p>
+ * Elements can be put with a supersession key, in which case they replace the element with the same key that is still
+ * in the queue, if any. Every element put with a lane gets a {@link Ticket} with which it can be cancelled as long as it
+ * is not taken.
+ */
+public class LaneQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    private final ReentrantLock              lock     = new ReentrantLock();
+    private final Condition                  notEmpty = lock.newCondition();
+    private final Condition                  notFull  = lock.newCondition();
+    private final TreeMap<Long, Ticket<E>>[] lanes;
+    private final TreeMap<Long, Ticket<E>>   behind   = new TreeMap<>();
+    private final HashMap<Object, Ticket<E>> keyed    = new HashMap<>();
+    private final int[]                      passed;
+    private final int                        capacity;
+    private final int                        starvationLimit;
+    private final Lane                       defaultLane;
+    private int                              count;
+    private long                             sequence;
+
+    @SuppressWarnings("unchecked")
+    public LaneQueue(int capacity, int starvationLimit, Lane defaultLane) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.starvationLimit = starvationLimit;
+        this.defaultLane = Objects.requireNonNull(defaultLane);
+        this.lanes = new TreeMap[Lane.ALL.length];
+        this.passed = new int[Lane.ALL.length];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new TreeMap<>();
+        }
+    }
+
+    public static final class Ticket<E> {
+
+        private final LaneQueue<E> queue;
+        private final Lane         lane;
+        private final Object       key;
+        private final E            element;
+        private final long         seq;
+        private boolean            queued;
+
+        private Ticket(LaneQueue<E> queue, Lane lane, Object key, E element, long seq) {
+            this.queue = queue;
+            this.lane = lane;
+            this.key = key;
+            this.element = element;
+            this.seq = seq;
+        }
+
+        public E element() {
+            return element;
+        }
+
+        /**
+         * @return the lane of the element, or null if it was put with {@link LaneQueue#putBehind(Object)}
+         */
+        public Lane lane() {
+            return lane;
+        }
+
+        public Object key() {
+            return key;
+        }
+
+        /**
+         * @return true if the element is still in the queue, false if it is taken, cancelled or superseded
+         */
+        public boolean isQueued() {
+            queue.lock.lock();
+            try {
+                return queued;
+            } finally {
+                queue.lock.unlock();
+            }
+        }
+
+        /**
+         * @return true if the element is removed from the queue, false if it was not in the queue anymore
+         */
+        public boolean cancel() {
+            return queue.cancel(this);
+        }
+
+        @Override
+        public String toString() {
+            return "Ticket[" + lane + (key != null ? "," + key : "") + "," + element + "]";
+        }
+
+    }
+
+    public Ticket<E> put(Lane lane, E e) throws InterruptedException {
+        return put(lane, null, e, (o, n) -> n);
+    }
+
+    /**
+     * Puts the element in the given lane. If an element with the same (not null) supersession key is still in the queue,
+     * that element is removed and the result of the supersede function, applied to the old and the new element, is put
+     * instead. The replacement takes over the queue position of the element it supersedes: in the same lane it takes its
+     * place, in another lane it is placed as if it had been put there at the time the superseded element was put.
+     * Superseding never waits for capacity.
+     */
+    public Ticket<E> put(Lane lane, Object key, E e, BinaryOperator<E> supersede) throws InterruptedException {
+        Objects.requireNonNull(e);
+        lock.lockInterruptibly();
+        try {
+            Ticket<E> old = key != null ? keyed.get(key) : null;
+            while (old == null && count == capacity) {
+                notFull.await();
+                old = key != null ? keyed.get(key) : null;
+            }
+            if (old != null) {
+                e = Objects.requireNonNull(supersede.apply(old.element, e));
+                tickets(old).remove(old.seq);
+                untrack(old);
+                count--;
+                return enqueue(lane, key, e, old.seq);
+            }
+            return enqueue(lane, key, e, sequence++);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Puts the element behind all elements that are in the queue now, whatever their lane. Used for markers, like a stop
+     * request, that must not overtake work that was queued before them.
+     */
+    public Ticket<E> putBehind(E e) throws InterruptedException {
+        Objects.requireNonNull(e);
+        lock.lockInterruptibly();
+        try {
+            while (count == capacity) {
+                notFull.await();
+            }
+            return enqueue(null, null, e, sequence++);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Ticket<E> offer(Lane lane, E e) {
+        Objects.requireNonNull(e);
+        lock.lock();
+        try {
+            return count == capacity ? null : enqueue(lane, null, e, sequence++);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Ticket<E> offer(Lane lane, E e, long timeout, TimeUnit unit) throws InterruptedException {
+        Objects.requireNonNull(e);
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (count == capacity) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            return enqueue(lane, null, e, sequence++);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        put(defaultLane, e);
+    }
+
+    @Override
+    public boolean offer(E e) {
+        return offer(defaultLane, e) != null;
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        return offer(defaultLane, e, timeout, unit) != null;
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E poll() {
+        lock.lock();
+        try {
+            return count == 0 ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E peek() {
+        lock.lock();
+        try {
+            return count == 0 ? null : tickets(select()).firstEntry().getValue().element;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size(Lane lane) {
+        lock.lock();
+        try {
+            return lanes[lane.ordinal()].size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return capacity - count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        lock.lock();
+        try {
+            for (int i = 0; i <= lanes.length; i++) {
+                for (Iterator<Ticket<E>> it = tickets(i).values().iterator(); it.hasNext();) {
+                    Ticket<E> ticket = it.next();
+                    if (ticket.element.equals(o)) {
+                        it.remove();
+                        removed(ticket);
+                        return true;
+                    }
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean cancel(Ticket<E> ticket) {
+        lock.lock();
+        try {
+            if (!ticket.queued) {
+                return false;
+            }
+            tickets(ticket).remove(ticket.seq);
+            removed(ticket);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(java.util.Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(java.util.Collection<? super E> c, int maxElements) {
+        Objects.requireNonNull(c);
+        if (c == this) {
+            throw new IllegalArgumentException("can not drain a queue to itself");
+        }
+        lock.lock();
+        try {
+            int n = 0;
+            while (n < maxElements && count > 0) {
+                c.add(dequeue());
+                n++;
+            }
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return a snapshot of the elements, in lane order followed by the elements put behind, that does not support removal
+     */
+    @Override
+    public Iterator<E> iterator() {
+        lock.lock();
+        try {
+            java.util.List<E> all = new ArrayList<>(count);
+            for (int i = 0; i <= lanes.length; i++) {
+                for (Ticket<E> ticket : tickets(i).values()) {
+                    all.add(ticket.element);
+                }
+            }
+            return Collections.unmodifiableList(all).iterator();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Ticket<E> enqueue(Lane lane, Object key, E e, long seq) {
+        Ticket<E> ticket = new Ticket<>(this, lane, key, e, seq);
+        ticket.queued = true;
+        tickets(ticket).put(seq, ticket);
+        if (key != null) {
+            keyed.put(key, ticket);
+        }
+        count++;
+        notEmpty.signal();
+        return ticket;
+    }
+
+    private E dequeue() {
+        int selected = select();
+        Ticket<E> ticket = tickets(selected).pollFirstEntry().getValue();
+        if (selected < lanes.length) {
+            passed[selected] = 0;
+            for (int i = 0; i < lanes.length; i++) {
+                if (i != selected && !lanes[i].isEmpty()) {
+                    passed[i]++;
+                }
+            }
+        }
+        removed(ticket);
+        return ticket.element;
+    }
+
+    private void removed(Ticket<E> ticket) {
+        untrack(ticket);
+        count--;
+        notFull.signal();
+    }
+
+    private void untrack(Ticket<E> ticket) {
+        ticket.queued = false;
+        if (ticket.key != null && keyed.get(ticket.key) == ticket) {
+            keyed.remove(ticket.key);
+        }
+    }
+
+    private TreeMap<Long, Ticket<E>> tickets(Ticket<E> ticket) {
+        return ticket.lane != null ? lanes[ticket.lane.ordinal()] : behind;
+    }
+
+    private TreeMap<Long, Ticket<E>> tickets(int i) {
+        return i < lanes.length ? lanes[i] : behind;
+    }
+
+    /**
+     * @return the index of the lane to take from next, or the number of lanes if the first element put behind is next
+     */
+    private int select() {
+        Ticket<E> marker = behind.isEmpty() ? null : behind.firstEntry().getValue();
+        int first = -1;
+        int starving = -1;
+        for (int i = 0; i < lanes.length; i++) {
+            if (!lanes[i].isEmpty()) {
+                if (marker != null && lanes[i].firstKey() < marker.seq) {
+                    marker = null;
+                }
+                if (first < 0) {
+                    first = i;
+                } else if (starving < 0 && starvationLimit > 0 && passed[i] >= starvationLimit) {
+                    starving = i;
+                }
+            }
+        }
+        return marker != null ? lanes.length : starving >= 0 ? starving : first;
+    }
+
+}
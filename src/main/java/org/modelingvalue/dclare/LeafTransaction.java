@@ -102,6 +102,16 @@ public abstract class LeafTransaction extends Transaction {
         return state().get(object, property);
     }
 
+    /**
+     * @see Setable#lookup(Object)
+     */
+    public <O, T> Set<Mutable> lookup(Setable<O, T> setable, Object value) {
+        if (!setable.isIndexed()) {
+            throw new IllegalArgumentException("The setable " + setable + " is not indexed");
+        }
+        return value == null ? Set.of() : get(universeTransaction().universe(), setable.index().of(value));
+    }
+
     protected <O, T> T current(O object, Getable<O, T> property) {
         return current().get(object, property);
     }
@@ -136,13 +146,16 @@ public abstract class LeafTransaction extends Transaction {
         Mutable object = target;
         set(object, state().actions(priority), Set::add, action);
         for (int i = priority.ordinal() + 1; i < ALL.length; i++) {
-            set(object, state().actions(ALL[i]), Set::remove, action);
+            if (current(object, state().actions(ALL[i])).contains(action)) {
+                set(object, state().actions(ALL[i]), Set::remove, action);
+            }
         }
         Mutable container = dParent(object);
         while (container != null && !ancestorEqualsMutable(object)) {
             set(container, state().children(priority), Set::add, object);
             for (int i = priority.ordinal() + 1; i < ALL.length; i++) {
-                if (current(object, state().actions(ALL[i])).isEmpty() && current(object, state().children(ALL[i])).isEmpty()) {
+                if (current(container, state().children(ALL[i])).contains(object) && //
+                        current(object, state().actions(ALL[i])).isEmpty() && current(object, state().children(ALL[i])).isEmpty()) {
                     set(container, state().children(ALL[i]), Set::remove, object);
                 }
             }
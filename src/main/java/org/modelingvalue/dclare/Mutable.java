@@ -51,6 +51,17 @@ public interface Mutable extends TransactionClass {
     @SuppressWarnings("unchecked")
     Observer<Mutable>                                        D_PUSHING_CONSTANTS_RULE = NonCheckingObserver.of("D_PUSHING_CONSTANTS_RULE", m -> MutableClass.D_PUSHING_CONSTANTS.get(m.dClass()).forEachOrdered(c -> c.get(m)));
 
+    Observed<Mutable, Pair<List<Mutable>, Set<Mutable>>>     D_ANCESTORS              = Observed.of("D_ANCESTORS", Pair.of(List.of(), Set.of()), plumbing);
+
+    Observer<Mutable>                                        D_ANCESTORS_RULE         = NonCheckingObserver.of(D_ANCESTORS, m -> {
+                                                                                          Mutable parent = m.dParent();
+                                                                                          if (parent == null) {
+                                                                                              return Pair.of(List.of(), Set.of());
+                                                                                          }
+                                                                                          Pair<List<Mutable>, Set<Mutable>> ancestors = D_ANCESTORS.get(parent);
+                                                                                          return Pair.of(ancestors.a().prepend(parent), ancestors.b().add(parent));
+                                                                                      });
+
     Constant<Mutable, Construction>                          D_INITIAL_CONSTRUCTION   = Constant.of("D_INITIAL_CONSTRUCTION", null, plumbing, durable);
     @SuppressWarnings({"unchecked", "rawtypes"})
     Observed<Mutable, QualifiedSet<Direction, Construction>> D_ALL_DERIVATIONS        = Observed.of("D_ALL_DERIVATIONS", QualifiedSet.of(c -> c.reason().direction()), (tx, o, b, a) -> {
@@ -153,6 +164,69 @@ public interface Mutable extends TransactionClass {
         return null;
     }
 
+    /**
+     * The ancestors of this mutable, the parent first. If the universe is configured with
+     * {@link DclareConfig#withAncestorIndex(boolean)} the path is kept in {@link #D_ANCESTORS} by the
+     * {@link #D_ANCESTORS_RULE}, together with the set of the same ancestors, and reading it adds a single observed
+     * dependency instead of one per level. Until that rule has run for a new or moved mutable, the path is computed by
+     * walking the parents.
+     */
+    default List<Mutable> dAncestorPath() {
+        Pair<List<Mutable>, Set<Mutable>> ancestors = dIndexedAncestors();
+        if (ancestors != null) {
+            return ancestors.a();
+        }
+        List<Mutable> result = List.of();
+        for (Mutable parent = dParent(); parent != null; parent = parent.dParent()) {
+            result = result.append(parent);
+        }
+        return result;
+    }
+
+    /**
+     * @return the derived path and set of ancestors, or null if the index is off or not derived for the current parent yet
+     */
+    private Pair<List<Mutable>, Set<Mutable>> dIndexedAncestors() {
+        if (LeafTransaction.getCurrent().universeTransaction().getConfig().isAncestorIndex()) {
+            Pair<List<Mutable>, Set<Mutable>> ancestors = D_ANCESTORS.get(this);
+            Pair<Mutable, Setable<Mutable, ?>> pair = D_PARENT_CONTAINING.current(this);
+            List<Mutable> path = ancestors.a();
+            if (pair == null ? path.isEmpty() : !path.isEmpty() && pair.a().equals(path.first())) {
+                return ancestors;
+            }
+        }
+        return null;
+    }
+
+    default int dDepth() {
+        return dAncestorPath().size();
+    }
+
+    /**
+     * Same as {@link #dHasAncestor(Mutable)}, based on {@link #dAncestorPath()}. With the ancestor index this is a set
+     * lookup instead of a scan of the path.
+     */
+    default boolean dHasAncestorInPath(Mutable ancestor) {
+        Pair<List<Mutable>, Set<Mutable>> ancestors = dIndexedAncestors();
+        return ancestors != null ? ancestors.b().contains(ancestor) : dAncestorPath().contains(ancestor);
+    }
+
+    /**
+     * Same as {@link #dAncestor(Class)}, based on {@link #dAncestorPath()}.
+     */
+    @SuppressWarnings("unchecked")
+    default <C> C dAncestorInPath(Class<C> cls) {
+        if (cls.isInstance(this)) {
+            return (C) this;
+        }
+        for (Mutable parent : dAncestorPath()) {
+            if (cls.isInstance(parent)) {
+                return (C) parent;
+            }
+        }
+        return null;
+    }
+
     @SuppressWarnings("unchecked")
     default <T> T dParent(Class<T> cls) {
         Mutable p = dParent();
@@ -160,17 +234,31 @@ public interface Mutable extends TransactionClass {
     }
 
     default void dActivate() {
+        UniverseTransaction utx = LeafTransaction.getCurrent().universeTransaction();
+        if (utx.getConfig().isExtentIndex()) {
+            utx.extent(dClass()).set(utx.universe(), Set::add, this);
+        }
         D_OBSERVERS_RULE.trigger(this);
         D_PUSHING_CONSTANTS_RULE.trigger(this);
+        if (utx.getConfig().isAncestorIndex()) {
+            D_ANCESTORS_RULE.trigger(this);
+        }
         for (Mutable child : dChildren()) {
             child.dActivate();
         }
     }
 
     default void dDeactivate(LeafTransaction tx) {
+        if (tx.universeTransaction().getConfig().isExtentIndex()) {
+            tx.set(tx.universeTransaction().universe(), tx.universeTransaction().extent(dClass()), Set::remove, this);
+        }
         D_OBSERVERS_RULE.deObserve(tx, this);
         D_PUSHING_CONSTANTS_RULE.deObserve(tx, this);
         D_OBSERVERS.setDefault(this);
+        if (tx.universeTransaction().getConfig().isAncestorIndex()) {
+            D_ANCESTORS_RULE.deObserve(tx, this);
+            D_ANCESTORS.setDefault(this);
+        }
     }
 
     MutableClass dClass();
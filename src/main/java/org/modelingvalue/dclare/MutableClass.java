@@ -55,4 +55,14 @@ public interface MutableClass extends Internable {
         return D_DERIVERS.get(this).get(setable);
     }
 
+    /**
+     * @return all active instances of this class; within an observer this adds a single dependency, on the extent, so the
+     *         observer only runs again when an instance is activated or deactivated. Only available if the universe is
+     *         configured with {@link DclareConfig#withExtentIndex(boolean)}.
+     */
+    default Set<Mutable> dExtent() {
+        UniverseTransaction utx = LeafTransaction.getCurrent().universeTransaction();
+        return utx.extent(this).get(utx.universe());
+    }
+
 }
@@ -51,6 +51,25 @@ public class MutableState implements IState {
         return atomic.getAndUpdate(s -> state);
     }
 
+    /**
+     * @return a private copy with the same pre state, of which the changes can be published at once with
+     *         {@link #publish(MutableState)}
+     */
+    public MutableState copy() {
+        MutableState copy = new MutableState(preState);
+        copy.atomic.set(state());
+        return copy;
+    }
+
+    /**
+     * Replaces the state by the state of the given copy, without changing the pre state.
+     *
+     * @return the replaced state
+     */
+    public State publish(MutableState copy) {
+        return atomic.getAndSet(copy.state());
+    }
+
     public <O, T> State set(O object, Setable<O, T> property, T value) {
         return atomic.updateAndGet(s -> {
             State r = s.set(object, property, value);
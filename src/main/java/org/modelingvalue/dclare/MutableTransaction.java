@@ -19,7 +19,9 @@ import static org.modelingvalue.dclare.Mutable.D_PARENT_CONTAINING;
 import static org.modelingvalue.dclare.Priority.one;
 import static org.modelingvalue.dclare.Priority.zero;
 
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.RecursiveAction;
 
 import org.modelingvalue.collections.Collection;
 import org.modelingvalue.collections.DefaultMap;
@@ -29,6 +31,7 @@ import org.modelingvalue.collections.Map;
 import org.modelingvalue.collections.Set;
 import org.modelingvalue.collections.util.Concurrent;
 import org.modelingvalue.collections.util.NotMergeableException;
+import org.modelingvalue.collections.util.Pair;
 import org.modelingvalue.collections.util.StringUtil;
 import org.modelingvalue.collections.util.TraceTimer;
 import org.modelingvalue.dclare.Observed.Observers;
@@ -38,6 +41,8 @@ import org.modelingvalue.dclare.ex.TransactionException;
 
 public class MutableTransaction extends Transaction implements StateMergeHandler {
 
+    private static final int MAX_NR_OF_BRANCHES = Integer.getInteger("MAX_NR_OF_BRANCHES", Collection.PARALLELISM * 4);
+
     @SuppressWarnings("rawtypes")
     private final Concurrent<Map<Observer, Set<Mutable>>> triggeredActions  = Concurrent.of();
     private final Concurrents<Set<Mutable>>               triggeredMutables = new Concurrents<>(Priority.one);
@@ -46,6 +51,8 @@ public class MutableTransaction extends Transaction implements StateMergeHandler
     @SuppressWarnings("unchecked")
     private final Set<Mutable>[]                          children          = new Set[1];
     private final State[]                                 state             = new State[1];
+    private State[]                                       branches          = new State[0];
+    private String                                        scheduleKey;
 
     @SuppressWarnings("unchecked")
 
@@ -58,17 +65,50 @@ public class MutableTransaction extends Transaction implements StateMergeHandler
         return (Mutable) cls();
     }
 
+    /**
+     * @return the path of mutables from the root transaction to this one, used by the {@link OrderingStrategy} to identify
+     *         its decisions. Each step is the {@link #elementKey(TransactionClass)} of the mutable, so siblings that print
+     *         the same still get their own key.
+     */
+    public String scheduleKey() {
+        String key = scheduleKey;
+        if (key == null) {
+            MutableTransaction parent = parent();
+            key = parent != null ? parent.scheduleKey() + "/" + elementKey(mutable()) : String.valueOf(mutable());
+            scheduleKey = key;
+        }
+        return key;
+    }
+
+    /**
+     * @return a key for a queued action or child of this transaction that does not depend on hash codes. A child is
+     *         identified by its containing setable and its position in it, or by its string if it is not in a list.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public String elementKey(TransactionClass tc) {
+        if (tc instanceof Mutable) {
+            Pair<Mutable, Setable<Mutable, ?>> pc = state[0].get((Mutable) tc, D_PARENT_CONTAINING);
+            if (pc != null) {
+                Object value = state[0].get(pc.a(), (Setable) pc.b());
+                return value instanceof List ? pc.b() + "[" + ((List) value).firstIndexOf(tc) + "]" : pc.b() + "=" + tc;
+            }
+        }
+        return tc.getClass().getSimpleName() + "=" + tc;
+    }
+
     protected boolean hasQueued(State state, Mutable object, Priority prio) {
         return !state.get(object, state.actions(prio)).isEmpty() || !state.get(object, state.children(prio)).isEmpty();
     }
 
     private void move(Mutable object, Priority from, Priority to) {
-        state[0] = state[0].set(object, state[0].actions(from), Set.of(), actions);
-        state[0] = state[0].set(object, state[0].actions(to), Set::addAll, actions[0]);
-        state[0] = state[0].set(object, state[0].children(from), Set.of(), children);
-        state[0] = state[0].set(object, state[0].children(to), Set::addAll, children[0]);
-        for (Mutable child : children[0].filter(Mutable.class)) {
-            move(child, from, to);
+        if (hasQueued(state[0], object, from)) {
+            state[0] = state[0].set(object, state[0].actions(from), Set.of(), actions);
+            state[0] = state[0].set(object, state[0].actions(to), Set::addAll, actions[0]);
+            state[0] = state[0].set(object, state[0].children(from), Set.of(), children);
+            state[0] = state[0].set(object, state[0].children(to), Set::addAll, children[0]);
+            for (Mutable child : children[0].filter(Mutable.class)) {
+                move(child, from, to);
+            }
         }
     }
 
@@ -120,14 +160,16 @@ public class MutableTransaction extends Transaction implements StateMergeHandler
             state[0] = null;
             actions[0] = null;
             children[0] = null;
+            scheduleKey = null;
             TraceTimer.traceEnd("compound");
         }
     }
 
     private void run(Set<Action<?>> actions, Set<Mutable> children) {
-        List<? extends TransactionClass> random = Collection.concat(actions, children).random().asList();
+        OrderingStrategy                 ordering = universeTransaction().getConfig().getOrderingStrategy();
+        List<? extends TransactionClass> random   = ordering.order(this, Collection.concat(actions, children));
         if (universeTransaction().getConfig().isTraceMutable()) {
-            System.err.println(DclareTrace.getLineStart("DCLARE", this) + mutable() + " " + random.toString().substring(4));
+            trace("DCLARE", mutable() + " " + random.toString().substring(4));
         }
         if (random.size() <= 2 || universeTransaction().getConfig().isRunSequential()) {
             runSequential(random);
@@ -136,7 +178,7 @@ public class MutableTransaction extends Transaction implements StateMergeHandler
             }
         } else {
             List<? extends TransactionClass> begin = random.sublist(0, random.size() >> 1);
-            runParallel(begin);
+            runParallel(begin, ordering);
             if (!universeTransaction().isKilled()) {
                 if (parent() == null || !hasQueued(state[0], parent().mutable(), one)) {
                     state[0] = state[0].set(mutable(), state[0].actions(zero), Set::addAll, actions.removeAll(begin));
@@ -151,31 +193,45 @@ public class MutableTransaction extends Transaction implements StateMergeHandler
 
     }
 
-    private <T extends TransactionClass> void runParallel(List<T> todo) {
-        if (todo.size() > 1) {
+    private <T extends TransactionClass> void runParallel(List<T> todo, OrderingStrategy ordering) {
+        if (todo.size() > 1 && ordering.parallel(this)) {
+            int length = Math.min(todo.size(), MAX_NR_OF_BRANCHES);
             try {
-                State[] branches = todo.reduce(state, this::accumulate, MutableTransaction::combine);
-                state[0] = merge(state[0], branches);
+                collect(todo, length);
+                state[0] = merge(state[0], branches, length);
+                ordering.merged(this, false);
             } catch (NotMergeableException nme) {
+                ordering.merged(this, true);
                 runSequential(todo);
+            } finally {
+                Arrays.fill(branches, 0, length, null);
             }
         } else {
             runSequential(todo);
         }
     }
 
-    private <T extends TransactionClass> State[] accumulate(State[] a, T tc) {
-        State[] r = a.clone();
-        int lastIndex = r.length - 1;
-        r[lastIndex] = tc.run(remove(a[lastIndex], one, tc), this);
-        return r;
+    /**
+     * Runs the given transaction classes in parallel and collects the resulting branches in the reused branches array. The
+     * list is cut in length consecutive slices, the classes of a slice run in sequence on top of each other and the result
+     * is stored at the index of the slice. So the branches are in the order of the list, whichever thread runs them, and
+     * the merge of the branches is repeatable.
+     */
+    private <T extends TransactionClass> void collect(List<T> todo, int length) {
+        if (branches.length < length) {
+            branches = new State[length];
+        }
+        new Collect<>(this, todo, length, 0, length).invoke();
     }
 
-    private static State[] combine(State[] a, State[] b) {
-        State[] r = new State[a.length + b.length];
-        System.arraycopy(a, 0, r, 0, a.length);
-        System.arraycopy(b, 0, r, a.length, b.length);
-        return r;
+    private <T extends TransactionClass> void accumulate(List<T> todo, int slice, int length) {
+        int size = todo.size();
+        State pre = state[0];
+        for (int i = slice * size / length; i < (slice + 1) * size / length; i++) {
+            T tc = todo.get(i);
+            pre = tc.run(remove(pre, one, tc), this);
+        }
+        branches[slice] = pre;
     }
 
     private <T extends TransactionClass> void runSequential(List<T> todo) {
@@ -189,26 +245,36 @@ public class MutableTransaction extends Transaction implements StateMergeHandler
         }
     }
 
-    private State merge(State base, State[] branches) {
+    private State merge(State base, State[] branches, int length) {
         if (universeTransaction().isKilled()) {
             return base;
-        } else if (branches.length == 1) {
+        } else if (length == 1) {
             return branches[0];
         } else {
             TraceTimer.traceBegin("merge");
+            DclareEvents.Merge mergeEvent = new DclareEvents.Merge();
+            boolean            conflict   = false;
+            mergeEvent.begin();
             triggeredActions.init(Map.of());
             triggeredMutables.init(Set.of());
             try {
-                State state = base.merge(this, branches, branches.length);
+                int threshold = universeTransaction().getConfig().getParallelMergeThreshold();
+                State state = threshold > 0 && length >= threshold ? //
+                        base.mergeParallel(this, branches, length) : //
+                        base.merge(this, branches, length);
                 state = trigger(state, triggeredActions.result(), one);
                 for (int i = 0; i < triggeredMutables.length(); i++) {
                     Priority priority = triggeredMutables.priority(i);
                     state = triggerMutables(state, triggeredMutables.result(priority), priority);
                 }
                 return state;
+            } catch (NotMergeableException e) {
+                conflict = true;
+                throw e;
             } finally {
                 triggeredActions.clear();
                 triggeredMutables.clear();
+                mergeEvent.end(mutable(), length, conflict);
                 TraceTimer.traceEnd("merge");
             }
         }
@@ -271,7 +337,7 @@ public class MutableTransaction extends Transaction implements StateMergeHandler
             for (Mutable m : e.getValue()) {
                 state = trigger(state, m, e.getKey(), priority);
                 if (universeTransaction().getConfig().isTraceMutable()) {
-                    System.err.println(DclareTrace.getLineStart("DCLARE", this) + mutable() + " TRIGGER " + m + "." + e.getKey() + " " + priority);
+                    trace("DCLARE", mutable() + " TRIGGER " + m + "." + e.getKey() + " " + priority);
                 }
             }
         }
@@ -283,7 +349,7 @@ public class MutableTransaction extends Transaction implements StateMergeHandler
         for (Mutable mutable : mutables) {
             state = trigger(state, mutable, null, priority);
             if (universeTransaction().getConfig().isTraceMutable()) {
-                System.err.println(DclareTrace.getLineStart("DCLARE", this) + mutable() + " TRIGGER " + mutable + " " + priority);
+                trace("DCLARE", mutable() + " TRIGGER " + mutable + " " + priority);
             }
         }
         return state;
@@ -312,4 +378,32 @@ public class MutableTransaction extends Transaction implements StateMergeHandler
         return "MU";
     }
 
+    private static final class Collect<T extends TransactionClass> extends RecursiveAction {
+        private static final long        serialVersionUID = 4217795322158290467L;
+
+        private final MutableTransaction tx;
+        private final List<T>            todo;
+        private final int                length;
+        private final int                from;
+        private final int                to;
+
+        private Collect(MutableTransaction tx, List<T> todo, int length, int from, int to) {
+            this.tx = tx;
+            this.todo = todo;
+            this.length = length;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                tx.accumulate(todo, from, length);
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Collect<>(tx, todo, length, from, mid), new Collect<>(tx, todo, length, mid, to));
+            }
+        }
+    }
+
 }
@@ -355,13 +355,13 @@ public class Observer<O extends Mutable> extends Action<O> implements Internable
                         Construction cons = Construction.of(o, observer, reason);
                         if (before != null) {
                             if (tx.leaf() instanceof Observer && tx.universeTransaction().getConfig().isTraceMatching()) {
-                                System.err.println(DclareTrace.getLineStart("DERIVE", tx) + o + "." + observer + " (" + reason + "<=" + before + ")");
+                                tx.trace("DERIVE", o + "." + observer + " (" + reason + "<=" + before + ")");
                             }
                             Newable.D_ALL_DERIVATIONS.set(before, QualifiedSet::remove, cons);
                         }
                         if (after != null) {
                             if (tx.leaf() instanceof Observer && tx.universeTransaction().getConfig().isTraceMatching()) {
-                                System.err.println(DclareTrace.getLineStart("DERIVE", tx) + o + "." + observer + " (" + reason + "=>" + after + ")");
+                                tx.trace("DERIVE", o + "." + observer + " (" + reason + "=>" + after + ")");
                             }
                             Newable.D_ALL_DERIVATIONS.set(after, QualifiedSet::put, cons);
                         }
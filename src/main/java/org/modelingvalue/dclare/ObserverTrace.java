@@ -30,31 +30,55 @@ public class ObserverTrace implements Comparable<ObserverTrace> {
     private final Mutable                                   mutable;
     private final Observer<?>                               observer;
     private final int                                       nrOfChanges;
-    private final ObserverTrace                             previous;
     private final Map<ObservedInstance, Object>             read;
     private final Map<ObservedInstance, Object>             written;
-    private final Set<ObserverTrace>                        done;
-    private final Map<ObservedInstance, Set<ObserverTrace>> backTrace;
     private final Instant                                   time;
+    private final TraceRing                                 ring;
+    private final long                                      seq;
+    private ObserverTrace                                   previous;
+    private Set<ObserverTrace>                              done;
+    private Map<ObservedInstance, Set<ObserverTrace>>       backTrace;
+    private volatile boolean                                resolved;
 
     protected ObserverTrace(Mutable mutable, Observer<?> observer, ObserverTrace previous, int nrOfChanges, Map<ObservedInstance, Object> read, Map<ObservedInstance, Object> written) {
         this.mutable = mutable;
         this.observer = observer;
         this.nrOfChanges = nrOfChanges;
-        this.previous = previous;
         this.read = read;
         this.written = written;
+        this.ring = null;
+        this.seq = -1;
         for (Entry<ObservedInstance, Object> e : read) {
             e.getKey().observed().readers().set(e.getKey().mutable(), Set::add, this);
         }
         for (Entry<ObservedInstance, Object> e : written) {
             e.getKey().observed().writers().set(e.getKey().mutable(), Set::add, this);
         }
-        Set<ObserverTrace> done = previous != null ? previous.done : Set.of();
+        resolve(previous, oi -> oi.observed().writers().get(oi.mutable()));
+        this.time = Instant.now();
+    }
+
+    /**
+     * A trace that is only recorded in the given ring, not in the state. Its previous trace, done set and back trace are
+     * resolved by the ring when they are asked for, see {@link TraceRing}.
+     */
+    protected ObserverTrace(TraceRing ring, Mutable mutable, Observer<?> observer, int nrOfChanges, Map<ObservedInstance, Object> read, Map<ObservedInstance, Object> written) {
+        this.mutable = mutable;
+        this.observer = observer;
+        this.nrOfChanges = nrOfChanges;
+        this.read = read;
+        this.written = written;
+        this.ring = ring;
+        this.time = Instant.now();
+        this.seq = ring.claim();
+        ring.publish(this);
+    }
+
+    void resolve(ObserverTrace previous, Function<ObservedInstance, Set<ObserverTrace>> writers) {
+        Set<ObserverTrace> done = previous != null ? previous.done() : Set.of();
         Map<ObservedInstance, Set<ObserverTrace>> backTrace = read.asMap(e -> {
             ObservedInstance observedInstance = e.getKey();
-            Set<ObserverTrace> writers = observedInstance.observed().writers().get(observedInstance.mutable());
-            return Entry.of(observedInstance, writers.removeAll(done).remove(this));
+            return Entry.of(observedInstance, writers.apply(observedInstance).removeAll(done).remove(this));
         });
         Set<ObserverTrace> back = backTrace.flatMap(Entry::getValue).asSet();
         Set<ObserverTrace> backDone = back.flatMap(ObserverTrace::done).asSet();
@@ -62,9 +86,24 @@ public class ObserverTrace implements Comparable<ObserverTrace> {
         if (backTrace.anyMatch(e -> e.getValue().anyMatch(w -> !w.mutable.equals(mutable) || !w.observer.equals(observer)))) {
             backTrace = backTrace.asMap(e -> Entry.of(e.getKey(), e.getValue().filter(w -> !w.mutable.equals(mutable) || !w.observer.equals(observer)).asSet()));
         }
+        this.previous = previous;
         this.backTrace = backTrace;
-        this.done = done.addAll(back).addAll(backDone).addAll(previous != null ? previous.done.add(previous) : Set.of());
-        this.time = Instant.now();
+        this.done = done.addAll(back).addAll(backDone).addAll(previous != null ? previous.done().add(previous) : Set.of());
+        this.resolved = true;
+    }
+
+    private void resolve() {
+        if (!resolved) {
+            ring.resolve(this);
+        }
+    }
+
+    boolean isResolved() {
+        return resolved;
+    }
+
+    long seq() {
+        return seq;
     }
 
     public Instant time() {
@@ -84,6 +123,7 @@ public class ObserverTrace implements Comparable<ObserverTrace> {
     }
 
     public Set<ObserverTrace> done() {
+        resolve();
         return done;
     }
 
@@ -96,10 +136,12 @@ public class ObserverTrace implements Comparable<ObserverTrace> {
     }
 
     public ObserverTrace previous() {
+        resolve();
         return previous;
     }
 
     public Map<ObservedInstance, Set<ObserverTrace>> backTrace() {
+        resolve();
         return backTrace;
     }
 
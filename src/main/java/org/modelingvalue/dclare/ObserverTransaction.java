@@ -137,18 +137,28 @@ public class ObserverTransaction extends ActionTransaction {
         try {
             DefaultMap<Observed, Set<Mutable>> observeds = this.observeds.get();
             checkTooManyObserved(mutable, observeds);
-            int nrOfChanges = 0;
+            int            nrOfChanges = 0;
+            ActionProfiler profiler    = universeTransaction().profiler();
             if (!observer.atomic() && changed.get().equals(TRUE)) {
                 nrOfChanges = checkTooManyChanges(pre, observeds);
                 trigger(mutable, (Observer<Mutable>) observer, Priority.one);
+                if (profiler != null) {
+                    profiler.retrigger(observer);
+                }
             } else {
                 Priority def = defer.first(TRUE::equals);
                 if (def != null) {
                     rollback(observer.atomic());
                     trigger(mutable, (Observer<Mutable>) observer, def);
+                    if (profiler != null) {
+                        profiler.defer(observer);
+                    }
                 } else if (changed.get().equals(TRUE)) {
                     nrOfChanges = checkTooManyChanges(pre, observeds);
                     trigger(mutable, (Observer<Mutable>) observer, Priority.one);
+                    if (profiler != null) {
+                        profiler.retrigger(observer);
+                    }
                 }
             }
             trace(pre, observeds, nrOfChanges);
@@ -164,7 +174,7 @@ public class ObserverTransaction extends ActionTransaction {
         }
         if (throwable != null) {
             if (universeTransaction().getConfig().isTraceActions()) {
-                runNonObserving(() -> System.err.println(DclareTrace.getLineStart("DCLARE", this) + mutable + "." + observer() + " (" + throwable.b() + ")"));
+                runNonObserving(() -> trace("DCLARE", mutable + "." + observer() + " (" + throwable.b() + ")"));
             }
             if (throwable.b() instanceof NullPointerException && emptyMandatory.get().equals(TRUE)) {
                 throwable = null;
@@ -208,23 +218,38 @@ public class ObserverTransaction extends ActionTransaction {
         }
         UniverseStatistics stats = universeTransaction().stats();
         if (stats.debugging() && changed.get().equals(TRUE)) {
-            ObserverTrace trace = trace(pre, observeds, changes, observer().debugs());
-            if (trace.done().size() > stats.maxNrOfChanges() || changes > stats.maxTotalNrOfChanges() + stats.maxNrOfChanges() * 2) {
+            boolean ring = universeTransaction().traceRing() != null;
+            ObserverTrace trace = ring ? trace(pre, observeds, changes, null) : trace(pre, observeds, changes, observer().debugs());
+            // a ring trace is resolved in global recording order, across parallel branches, so only when it is reported
+            if ((!ring && trace.done().size() > stats.maxNrOfChanges()) || changes > stats.maxTotalNrOfChanges() + stats.maxNrOfChanges() * 2) {
                 throw new TooManyChangesException(current(), trace, changes);
             }
         }
     }
 
+    /**
+     * Records a trace of this run. With a {@link UniverseTransaction#traceRing()} the trace is recorded in the ring, and
+     * only appended to the given setable, if any; otherwise it is recorded in the state.
+     */
     @SuppressWarnings({"rawtypes", "unchecked"})
     private ObserverTrace trace(State pre, DefaultMap<Observed, Set<Mutable>> observeds, int changes, Setable<Mutable, List<ObserverTrace>> setable) {
-        List<ObserverTrace> traces = setable.get(mutable());
-        ObserverTrace trace = new ObserverTrace(mutable(), observer(), traces.last(), changes, //
-                observeds.filter(e -> !e.getKey().isPlumbing()).flatMap(e -> e.getValue().map(m -> {
-                    m = m.dResolve(mutable());
-                    return Entry.of(ObservedInstance.of(m, e.getKey()), pre.get(m, e.getKey()));
-                })).asMap(e -> e), //
-                pre.diff(current(), o -> o instanceof Mutable, s -> s instanceof Observed && !s.isPlumbing()).flatMap(e1 -> e1.getValue().map(e2 -> Entry.of(ObservedInstance.of((Mutable) e1.getKey(), (Observed) e2.getKey()), e2.getValue().b()))).asMap(e -> e));
-        setable.set(mutable(), traces.append(trace));
+        Map<ObservedInstance, Object> read = observeds.filter(e -> !e.getKey().isPlumbing()).flatMap(e -> e.getValue().map(m -> {
+            m = m.dResolve(mutable());
+            return Entry.of(ObservedInstance.of(m, e.getKey()), pre.get(m, e.getKey()));
+        })).asMap(e -> e);
+        Map<ObservedInstance, Object> written = pre.diff(current(), o -> o instanceof Mutable, s -> s instanceof Observed && !s.isPlumbing()).flatMap(e1 -> e1.getValue().map(e2 -> Entry.of(ObservedInstance.of((Mutable) e1.getKey(), (Observed) e2.getKey()), e2.getValue().b()))).asMap(e -> e);
+        TraceRing ring = universeTransaction().traceRing();
+        ObserverTrace trace;
+        if (ring != null) {
+            trace = new ObserverTrace(ring, mutable(), observer(), changes, read, written);
+            if (setable != null) {
+                setable.set(mutable(), setable.get(mutable()).append(trace));
+            }
+        } else {
+            List<ObserverTrace> traces = setable.get(mutable());
+            trace = new ObserverTrace(mutable(), observer(), traces.last(), changes, read, written);
+            setable.set(mutable(), traces.append(trace));
+        }
         return trace;
     }
 
@@ -380,7 +405,7 @@ public class ObserverTransaction extends ActionTransaction {
                 O post = (O) actualize(startState(Priority.three).get(mutable, constructed)).get(reason);
                 if (pre == null && post != null && !post.equals(result)) {
                     setConstructed(reason, cons, result);
-                    defer.set(Priority.three, TRUE);
+                    defer(Priority.three);
                     traceRippleOut(mutable, observer(), result, post);
                     return post;
                 }
@@ -410,13 +435,13 @@ public class ObserverTransaction extends ActionTransaction {
                 Setable.<T, E> diff(pre, post, added -> {
                     Priority delay = added(object, many, added, forward, isNew);
                     if (delay != null) {
-                        defer.set(delay, TRUE);
+                        defer(delay);
                         result[0] = result[0].remove(added);
                     }
                 }, removed -> {
                     Priority delay = removed(object, many, removed, forward, isNew);
                     if (delay != null) {
-                        defer.set(delay, TRUE);
+                        defer(delay);
                         if (pre instanceof List && post instanceof List) {
                             int i = Math.min(((List<E>) pre).firstIndexOf(removed), result[0].size());
                             result[0] = ((List<E>) result[0]).insert(i, removed);
@@ -432,7 +457,7 @@ public class ObserverTransaction extends ActionTransaction {
             } else {
                 Priority delay = changed(object, observed, pre, post, forward, isNew);
                 if (delay != null) {
-                    defer.set(delay, TRUE);
+                    defer(delay);
                     traceRippleOut(object, observed, post, pre);
                     return pre;
                 } else {
@@ -557,11 +582,16 @@ public class ObserverTransaction extends ActionTransaction {
 
     private <O> void traceRippleOut(O object, Feature feature, Object post, Object result) {
         if (universeTransaction().getConfig().isTraceRippleOut()) {
-            runNonObserving(() -> System.err.println(DclareTrace.getLineStart("DEFER", this) + mutable() + "." + observer() + //
+            runNonObserving(() -> trace("DEFER", mutable() + "." + observer() + //
                     " " + deferPriorityName() + " (" + object + "." + feature + "=" + result + "<-" + post + ")"));
         }
     }
 
+    private void defer(Priority priority) {
+        defer.set(priority, TRUE);
+        universeTransaction().stats().bumpDeferrals(priority);
+    }
+
     private String deferPriorityName() {
         //noinspection DataFlowIssue
         return defer.first(TRUE::equals).name().toUpperCase();
@@ -597,7 +627,7 @@ public class ObserverTransaction extends ActionTransaction {
                     }
                 }
                 if (!found && universeTransaction().getConfig().isTraceMatching()) {
-                    runNonObserving(() -> System.err.println(DclareTrace.getLineStart("MATCH", this) + mutable() + "." + observer() + " (" + preInfo + "!=" + postInfo + ")"));
+                    runNonObserving(() -> trace("MATCH", mutable() + "." + observer() + " (" + preInfo + "!=" + postInfo + ")"));
                 }
             }
         }
@@ -654,7 +684,7 @@ public class ObserverTransaction extends ActionTransaction {
                             break;
                         } else if (observed.containment() && universeTransaction().getConfig().isTraceMatching()) {
                             MatchInfo finalPostInfo = postInfo;
-                            runNonObserving(() -> System.err.println(DclareTrace.getLineStart("MATCH", this) + mutable() + "." + observer() + " (" + preInfo + "!=" + finalPostInfo + ")"));
+                            runNonObserving(() -> trace("MATCH", mutable() + "." + observer() + " (" + preInfo + "!=" + finalPostInfo + ")"));
                         }
                     }
                 }
@@ -674,7 +704,7 @@ public class ObserverTransaction extends ActionTransaction {
         Mutable mutable = mutable();
         Observer<?> observer = observer();
         if (universeTransaction().getConfig().isTraceMatching()) {
-            runNonObserving(() -> System.err.println(DclareTrace.getLineStart("MATCH", this) + mutable + "." + observer + " (" + replacing + "==" + replaced + ")"));
+            runNonObserving(() -> trace("MATCH", mutable + "." + observer + " (" + replacing + "==" + replaced + ")"));
         }
         if (Mutable.D_INITIAL_CONSTRUCTION.get(replacing.newable()).isDirect()) {
             super.set(replaced.newable(), Newable.D_REPLACING, Newable.D_REPLACING.getDefault(replaced.newable()), replacing.newable());
@@ -22,7 +22,11 @@ import org.modelingvalue.collections.Set;
 import org.modelingvalue.collections.util.ContextThread;
 import org.modelingvalue.collections.util.ContextThread.ContextPool;
 import org.modelingvalue.collections.util.MutationWrapper;
+import org.modelingvalue.collections.util.Pair;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -30,9 +34,16 @@ import java.lang.annotation.Target;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Comparator;
+import java.util.HexFormat;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
@@ -48,6 +59,9 @@ import java.util.stream.IntStream;
  * You can mark the first method with {@link OneShotAction#caching()} to cache the state after running the method the first time.
  * This state will be the start state at the next invocation of this class and the method can (and will) be skipped.
  * This is meant for setting up a constant state in the universe that is used every time.
+ * <p>
+ * The cached state is kept in memory. Overrule {@link #getCacheStore()} to also keep it in a {@link StateMapStore}, so that it
+ * survives the JVM. A stored state is only used when the {@link #getModelHash()} did not change.
  *
  * @param <U> the Universe class for this repo
  */
@@ -58,7 +72,8 @@ public abstract class OneShot<U extends Universe> {
     private static final String                                      TRACE_ONE_SHOT_SETABLE = System.getProperty("TRACE_ONE_SHOT_SETABLE");
     private static final MutationWrapper<Map<Class<?>, StateMap>>    STATE_MAP_CACHE        = new MutationWrapper<>(Map.of());
     private static final MutationWrapper<Map<Class<?>, Set<Method>>> ALL_METHODS_CACHE      = new MutationWrapper<>(Map.of());
-    private static final ContextPoolPool                             CONTEXT_POOL_POOL      = new ContextPoolPool();
+    private static final boolean                                     ONE_SHOT_SHARED_POOL   = Boolean.getBoolean("ONE_SHOT_SHARED_POOL");
+    private static final ContextPoolProvider                         CONTEXT_POOL_POOL      = ONE_SHOT_SHARED_POOL ? SharedContextPool.instance() : new ContextPoolPool();
 
     private final Class<?> cacheKey = getClass();
     private final U        universe;
@@ -105,21 +120,166 @@ public abstract class OneShot<U extends Universe> {
      * @return the ContextPool that was created
      */
     public ContextPool getContextPool() {
-        return CONTEXT_POOL_POOL.getContextPool();
+        return contextPoolProvider().getContextPool();
     }
 
     public void doneWithContextPool(ContextPool contextPool) {
-        if (!CONTEXT_POOL_POOL.doneWithContextPool(contextPool)) {
+        if (!contextPoolProvider().doneWithContextPool(contextPool)) {
             contextPool.shutdownNow();
         }
     }
 
+    /**
+     * overrule where needed
+     *
+     * @return true if this OneShot runs on the ContextPool that is shared by all OneShots under admission control,
+     *         default the ONE_SHOT_SHARED_POOL system property
+     */
+    public boolean useSharedContextPool() {
+        return ONE_SHOT_SHARED_POOL;
+    }
+
+    private ContextPoolProvider contextPoolProvider() {
+        return useSharedContextPool() ? SharedContextPool.instance() : CONTEXT_POOL_POOL;
+    }
+
+    /**
+     * overrule where needed
+     *
+     * @return the store in which the cached state is persisted, or null if it is only cached in memory
+     */
+    public StateMapStore getCacheStore() {
+        return null;
+    }
+
+    /**
+     * overrule where needed, the default is a hash of the class files of this oneshot and of the universe and of the
+     * {@link Setable}s, {@link Observer}s and class files of all {@link #getModelClasses() model classes}.
+     *
+     * @return the hash of the model definitions that the cached state depends on
+     */
+    public String getModelHash() {
+        try {
+            MessageDigest                   digest  = MessageDigest.getInstance("SHA-256");
+            java.util.Map<String, Class<?>> classes = new java.util.TreeMap<>();
+            for (Class<?> c = cacheKey; c != OneShot.class; c = c.getSuperclass()) {
+                classes.put(c.getName(), c);
+            }
+            classes.put(universe.getClass().getName(), universe.getClass());
+            java.util.List<? extends MutableClass> modelClasses = getModelClasses().sorted(Comparator.comparing(c -> stableId(c, classes))).collect(Collectors.toList());
+            for (MutableClass cls : modelClasses) {
+                digestString(digest, "class " + stableId(cls, classes));
+                classes.put(cls.getClass().getName(), cls.getClass());
+                cls.dSetables().map(s -> "setable " + stableId(s.id(), classes) + " " + s.getClass().getName() + (s.containment() ? " containment" : "") + (s.mandatory() ? " mandatory" : "")).sorted().collect(Collectors.toList()).forEach(s -> digestString(digest, s));
+                cls.dObservers().map(o -> "observer " + stableId(o.id(), classes) + " " + o.getClass().getName()).sorted().collect(Collectors.toList()).forEach(s -> digestString(digest, s));
+            }
+            for (Class<?> c : classes.values()) {
+                digestClass(digest, c);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new Error(e);
+        }
+    }
+
+    /**
+     * overrule where needed, the default only has the class of the universe. Add the classes of the other {@link Mutable}s
+     * of the model, so that a change in their {@link Setable}s, {@link Observer}s or rules makes the stored state stale.
+     *
+     * @return the classes of the model that are included in the {@link #getModelHash()}
+     */
+    public Collection<? extends MutableClass> getModelClasses() {
+        return Collection.of(universe.dClass());
+    }
+
+    private static void digestString(MessageDigest digest, String s) {
+        digest.update(s.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /**
+     * A representation of an identifier that is the same in every JVM. Lambdas are replaced by the class that defines
+     * them, which is then also hashed, and objects without their own toString by their class name.
+     */
+    private static String stableId(Object id, java.util.Map<String, Class<?>> classes) {
+        if (id == null) {
+            return "null";
+        } else if (id instanceof Pair) {
+            Pair<?, ?> pair = (Pair<?, ?>) id;
+            return "(" + stableId(pair.a(), classes) + "," + stableId(pair.b(), classes) + ")";
+        }
+        Class<?> clazz = id.getClass();
+        if (clazz.isHidden() || clazz.isSynthetic()) {
+            Class<?> host = hostClass(clazz);
+            classes.put(host.getName(), host);
+            return host.getName() + "$lambda";
+        }
+        try {
+            return clazz.getMethod("toString").getDeclaringClass() == Object.class ? clazz.getName() : id.toString();
+        } catch (NoSuchMethodException e) {
+            throw new Error(e);
+        }
+    }
+
+    private static Class<?> hostClass(Class<?> lambda) {
+        String name = lambda.getName();
+        int    i    = name.indexOf("$$Lambda");
+        if (i < 0) {
+            return lambda;
+        }
+        try {
+            return Class.forName(name.substring(0, i), false, lambda.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return lambda;
+        }
+    }
+
+    private static void digestClass(MessageDigest digest, Class<?> clazz) {
+        digest.update(clazz.getName().getBytes(StandardCharsets.UTF_8));
+        try (InputStream in = clazz.getResourceAsStream('/' + clazz.getName().replace('.', '/') + ".class")) {
+            if (in != null) {
+                digest.update(in.readAllBytes());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     public StateMap getEndStateMap() {
         return getEndState().getStateMap();
     }
 
     public void clearCache() {
         STATE_MAP_CACHE.update(m -> m.remove(cacheKey));
+        StateMapStore store = getCacheStore();
+        if (store != null) {
+            store.remove(cacheKey);
+        }
+    }
+
+    private StateMap getCachedStateMap() {
+        StateMap cachedStateMap = STATE_MAP_CACHE.get().get(cacheKey);
+        if (cachedStateMap == null) {
+            StateMapStore store = getCacheStore();
+            if (store != null) {
+                long t0 = System.currentTimeMillis();
+                cachedStateMap = store.load(cacheKey, getModelHash());
+                if (cachedStateMap != null) {
+                    trace(" CACHE-LOAD", "duration=%5d ms", System.currentTimeMillis() - t0);
+                    StateMap loaded = cachedStateMap;
+                    STATE_MAP_CACHE.update(a -> a.computeIfAbsent(cacheKey, __ -> loaded));
+                }
+            }
+        }
+        return cachedStateMap;
+    }
+
+    private void putCachedStateMap(StateMap stateMap) {
+        STATE_MAP_CACHE.update(a -> a.computeIfAbsent(cacheKey, __ -> stateMap));
+        StateMapStore store = getCacheStore();
+        if (store != null) {
+            store.store(cacheKey, getModelHash(), stateMap);
+        }
     }
 
     /**
@@ -137,9 +297,9 @@ public abstract class OneShot<U extends Universe> {
             if (endState == null) {
                 ContextPool contextPool = getContextPool();
                 try {
-                    StateMap            cachedStateMap      = STATE_MAP_CACHE.get().get(cacheKey);
+                    StateMap            cachedStateMap      = getCachedStateMap();
                     boolean             runningFromCache    = cachedStateMap != null;
-                    UniverseTransaction universeTransaction = new UniverseTransaction(getUniverse(), contextPool, getConfig(), null, cachedStateMap);
+                    UniverseTransaction universeTransaction = new UniverseTransaction(getUniverse(), contextPool, contextPoolProvider().configure(contextPool, getConfig()), null, cachedStateMap);
                     long                t0                  = System.currentTimeMillis();
                     List<MyAction>      allActions          = getAllActions(runningFromCache);
                     trace("START", "#actions=%d", allActions.size());
@@ -195,7 +355,7 @@ public abstract class OneShot<U extends Universe> {
                 trace(" <<ACTION", "%s duration=%5d ms\n", id(), System.currentTimeMillis() - t00);
                 if (writeResultToCache) {
                     trace(" CACHE-WRITE", "%s", id());
-                    STATE_MAP_CACHE.update(a -> a.computeIfAbsent(cacheKey, __ -> intermediateState.getStateMap()));
+                    putCachedStateMap(intermediateState.getStateMap());
                 }
             }
         }
@@ -237,7 +397,154 @@ public abstract class OneShot<U extends Universe> {
         }
     }
 
-    private static class ContextPoolPool {
+    private interface ContextPoolProvider {
+        ContextPool getContextPool();
+
+        boolean doneWithContextPool(ContextPool pool);
+
+        default DclareConfig configure(ContextPool pool, DclareConfig config) {
+            return config;
+        }
+
+        void check();
+    }
+
+    /**
+     * One ContextPool, created on first use, that is shared by all OneShots under admission control: at most
+     * ONE_SHOT_CONCURRENCY OneShots run at the same time, the others wait in arrival order. The universes on the shared
+     * pool run the event driven main loop, so they only occupy a worker while they have actions to handle.
+     * <p>
+     * Admission is counted per thread. A OneShot that is started on a thread that is already admitted, for instance from
+     * the config or universe of another OneShot, runs under that admission, and so does a OneShot that is started from an
+     * action, on a worker of the shared pool. Such nested OneShots do not wait for a permit that their caller holds.
+     */
+    private static class SharedContextPool implements ContextPoolProvider {
+        private static final int                              ONE_SHOT_CONCURRENCY = Integer.getInteger("ONE_SHOT_CONCURRENCY", Collection.PARALLELISM);
+        private static final int                              MAIN_LOOP_QUANTUM    = Integer.getInteger("ONE_SHOT_MAIN_LOOP_QUANTUM", 16);
+        //
+        private final        Semaphore                        permits              = new Semaphore(ONE_SHOT_CONCURRENCY, true);
+        private final        java.util.Map<Thread, Admission> admitted             = new ConcurrentHashMap<>();
+        private volatile     ContextPool                      pool;
+
+        private static final class Holder {
+            private static final SharedContextPool INSTANCE = new SharedContextPool();
+        }
+
+        private static SharedContextPool instance() {
+            return Holder.INSTANCE;
+        }
+
+        private static final class Admission {
+            private final long    start = System.currentTimeMillis();
+            private final boolean permit;
+            private int           depth = 1;
+
+            private Admission(boolean permit) {
+                this.permit = permit;
+            }
+        }
+
+        private SharedContextPool() {
+            trace("INIT");
+            new ContextPoolPool.PoolPoolMonitor(this).start();
+        }
+
+        private ContextPool pool() {
+            ContextPool p = pool;
+            if (p == null) {
+                synchronized (this) {
+                    p = pool;
+                    if (p == null) {
+                        pool = p = ContextThread.createPool();
+                    }
+                }
+            }
+            return p;
+        }
+
+        @Override
+        public ContextPool getContextPool() {
+            Thread    thread    = Thread.currentThread();
+            Admission admission = admitted.get(thread);
+            if (admission != null) {
+                admission.depth++;
+                trace("reentered");
+                return pool();
+            }
+            if (isWorker(thread)) {
+                admitted.put(thread, new Admission(false));
+                trace("nested");
+                return pool();
+            }
+            try {
+                trace("get");
+                long t0 = System.nanoTime();
+                if (!permits.tryAcquire(ContextPoolPool.POOL_POOL_AQUIRE_TIMEOUT_SEC, TimeUnit.SECONDS)) {
+                    trace("timeout");
+                    throw new RuntimeException("timeout after " + (System.nanoTime() - t0) / 1_000_000 + " ms while waiting for admission to the shared ContextPool");
+                }
+                admitted.put(thread, new Admission(true));
+                trace(String.format("waited %6d ms", (System.nanoTime() - t0) / 1_000_000));
+                return pool();
+            } catch (InterruptedException e) {
+                throw new RuntimeException("interrupted while waiting for admission to the shared ContextPool", e);
+            }
+        }
+
+        @Override
+        public boolean doneWithContextPool(ContextPool pool) {
+            if (pool != this.pool) {
+                return false;
+            }
+            Thread    thread    = Thread.currentThread();
+            Admission admission = admitted.get(thread);
+            if (admission == null) {
+                trace("not admitted");
+                throw new IllegalStateException("not admitted");
+            }
+            if (--admission.depth == 0) {
+                admitted.remove(thread);
+                if (admission.permit) {
+                    permits.release();
+                }
+            }
+            trace("done");
+            return true;
+        }
+
+        private boolean isWorker(Thread thread) {
+            ContextPool p = pool;
+            return p != null && thread instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) thread).getPool() == p;
+        }
+
+        @Override
+        public DclareConfig configure(ContextPool pool, DclareConfig config) {
+            return pool == this.pool && config.getMainLoopQuantum() == 0 ? config.withMainLoopQuantum(MAIN_LOOP_QUANTUM) : config;
+        }
+
+        @Override
+        public void check() {
+            long now = System.currentTimeMillis();
+            admitted.forEach((thread, admission) -> {
+                long duration = now - admission.start;
+                if (ContextPoolPool.POOL_POOL_ALARM_THRESHOLD_SEC * 1000L < duration) {
+                    System.err.printf("ALARM: OneShot probably stuck (admitted for %-8d ms): %s\n", duration, thread.getName());
+                }
+            });
+        }
+
+        private void trace(String msg) {
+            if (!ContextPoolPool.NO_POOL_POOL_TRACE) {
+                System.err.printf("TRACE: SharedContextPool: [%-25s] %-25s: admitted/waiting=%3d/%3d\n",
+                                  Thread.currentThread().getName(),
+                                  msg,
+                                  admitted.size(),
+                                  permits.getQueueLength());
+            }
+        }
+    }
+
+    private static class ContextPoolPool implements ContextPoolProvider {
         private static final boolean                              NO_POOL_POOL_TRACE             = Boolean.getBoolean("NO_POOL_POOL_TRACE");
         private static final int                                  POOL_POOL_SIZE                 = Integer.getInteger("POOL_POOL_SIZE", Collection.PARALLELISM);
         private static final int                                  POOL_POOL_ALARM_THRESHOLD_SEC  = Integer.getInteger("POOL_POOL_ALARM_THRESHOLD_SEC", 30);
@@ -265,6 +572,7 @@ public abstract class OneShot<U extends Universe> {
             return idleQueue.stream().collect(Collectors.toMap(info -> info.pool, info -> info));
         }
 
+        @Override
         public ContextPool getContextPool() {
             try {
                 PoolPoolInfo.preUpdate(poolPoolInfo);
@@ -286,6 +594,7 @@ public abstract class OneShot<U extends Universe> {
             }
         }
 
+        @Override
         public boolean doneWithContextPool(ContextPool pool) {
             PoolInfo info = poolInfoMap.get(pool);
             if (info == null) {
@@ -312,7 +621,8 @@ public abstract class OneShot<U extends Universe> {
             }
         }
 
-        private void check() {
+        @Override
+        public void check() {
             for (PoolInfo info : poolInfoMap.values()) {
                 if (info.busy) {
                     long duration = info.duration();
@@ -324,9 +634,9 @@ public abstract class OneShot<U extends Universe> {
         }
 
         private static class PoolPoolMonitor extends Thread {
-            private final ContextPoolPool contextPoolPool;
+            private final ContextPoolProvider contextPoolPool;
 
-            private PoolPoolMonitor(ContextPoolPool contextPoolPool) {
+            private PoolPoolMonitor(ContextPoolProvider contextPoolPool) {
                 super("PoolPoolMonitor");
                 setDaemon(true);
                 this.contextPoolPool = contextPoolPool;
@@ -0,0 +1,103 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+// (C) Copyright 2018-2023 Modeling Value Group B.V. (http://modelingvalue.org)                                        ~
+//                                                                                                                     ~
+// Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in      ~
+// compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0  ~
+// Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on ~
+// an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the  ~
+// specific language governing permissions and limitations under the License.                                          ~
+//                                                                                                                     ~
+// Maintainers:                                                                                                        ~
+//     Wim Bast, Tom Brus, Ronald Krijgsheld                                                                           ~
+// Contributors:                                                                                                       ~
+//     Arjan Kok, Carel Bast                                                                                           ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.dclare;
+
+import java.util.Comparator;
+import java.util.Random;
+
+import org.modelingvalue.collections.Collection;
+import org.modelingvalue.collections.List;
+
+/**
+ * Decides the order in which a {@link MutableTransaction} runs its queued actions and children, and whether the first
+ * half of them is run in parallel. The default {@link #RANDOM} strategy shuffles differently on every run,
+ * {@link #seeded(long)} gives the same order for the same seed and start state, {@link ScheduleRecorder} and
+ * {@link ScheduleReplayer} capture and replay the exact schedule of a cycle.
+ * <p>
+ * The methods are called concurrently from the transactions of different mutables, but never concurrently for the same
+ * {@link MutableTransaction#scheduleKey()}.
+ */
+public interface OrderingStrategy {
+
+    OrderingStrategy RANDOM = new OrderingStrategy() {
+        @Override
+        public <T extends TransactionClass> List<T> order(MutableTransaction tx, Collection<T> todo) {
+            return todo.random().asList();
+        }
+
+        @Override
+        public String toString() {
+            return "RANDOM";
+        }
+    };
+
+    static OrderingStrategy seeded(long seed) {
+        return new OrderingStrategy() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T extends TransactionClass> List<T> order(MutableTransaction tx, Collection<T> todo) {
+                List<T> list = OrderingStrategy.stable(tx, todo);
+                Object[] array = new Object[list.size()];
+                int n = 0;
+                for (T t : list) {
+                    array[n++] = t;
+                }
+                Random random = new Random(seed * 31 + tx.scheduleKey().hashCode());
+                for (int i = array.length - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    Object t = array[i];
+                    array[i] = array[j];
+                    array[j] = t;
+                }
+                return List.of((T[]) array);
+            }
+
+            @Override
+            public String toString() {
+                return "SEEDED(" + seed + ")";
+            }
+        };
+    }
+
+    /**
+     * @return the elements of todo sorted on their {@link MutableTransaction#elementKey(TransactionClass)}. Unlike the order
+     *         of todo itself, this order does not depend on hash codes, so it is the same in every process that starts from
+     *         the same state. Elements with equal keys cannot be told apart and keep the order of todo.
+     */
+    static <T extends TransactionClass> List<T> stable(MutableTransaction tx, Collection<T> todo) {
+        return todo.sorted(Comparator.comparing(t -> tx.elementKey(t))).asList();
+    }
+
+    /**
+     * @return all elements of todo, in the order they should be run
+     */
+    <T extends TransactionClass> List<T> order(MutableTransaction tx, Collection<T> todo);
+
+    /**
+     * @return false if the first half of the last ordered elements must run sequentially instead of in parallel
+     */
+    default boolean parallel(MutableTransaction tx) {
+        return true;
+    }
+
+    /**
+     * Called after the parallel run of the first half of the last ordered elements has been merged, or could not be merged
+     * because of a conflict and is run sequentially instead.
+     */
+    default void merged(MutableTransaction tx, boolean conflict) {
+    }
+
+}
@@ -43,6 +43,12 @@ public enum Priority implements LeafModifier<Priority>, Internable {
     public static final Priority   INNER = two;
     public static final Priority   OUTER = five;
 
+    /**
+     * The per-priority ready set of a mutable. Ready sets are kept in the {@link State} on purpose: parallel branches each
+     * schedule into their own persistent state, a branch that cannot be merged is dropped and rerun together with what it
+     * scheduled, and the merge uses the queued sets to find mutables that were triggered under a changed parent. A ready
+     * set shared outside the state would let a sibling branch consume a trigger against a state without its cause.
+     */
     public final static class Queued<T extends TransactionClass> extends Setable<Mutable, Set<T>> {
 
         private final boolean actions;
@@ -0,0 +1,186 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+// (C) Copyright 2018-2023 Modeling Value Group B.V. (http://modelingvalue.org)                                        ~
+//                                                                                                                     ~
+// Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in      ~
+// compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0  ~
+// Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on ~
+// an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the  ~
+// specific language governing permissions and limitations under the License.                                          ~
+//                                                                                                                     ~
+// Maintainers:                                                                                                        ~
+//     Wim Bast, Tom Brus, Ronald Krijgsheld                                                                           ~
+// Contributors:                                                                                                       ~
+//     Arjan Kok, Carel Bast                                                                                           ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.dclare;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The ordering decisions and merge outcomes of all {@link MutableTransaction}s in one cycle of a
+ * {@link UniverseTransaction}, as captured by a {@link ScheduleRecorder}. The decisions are kept per
+ * {@link MutableTransaction#scheduleKey()} in the order they were taken. An order is stored as the permutation of the
+ * queued elements in their {@link OrderingStrategy#stable(MutableTransaction, org.modelingvalue.collections.Collection)
+ * stable order}, so a schedule can be written to a file and replayed in another process with a {@link ScheduleReplayer}.
+ */
+public final class Schedule {
+    public static final byte NONE     = 0;
+    public static final byte MERGED   = 1;
+    public static final byte CONFLICT = 2;
+
+    public static final class Decision {
+        private final int[]   order;
+        private volatile byte merge;
+
+        public Decision(int[] order, byte merge) {
+            this.order = order;
+            this.merge = merge;
+        }
+
+        public int[] order() {
+            return order;
+        }
+
+        public byte merge() {
+            return merge;
+        }
+
+        void merge(byte merge) {
+            this.merge = merge;
+        }
+    }
+
+    private final long                                           cycle;
+    private final ConcurrentHashMap<String, ArrayList<Decision>> decisions = new ConcurrentHashMap<>();
+
+    public Schedule(long cycle) {
+        this.cycle = cycle;
+    }
+
+    public long cycle() {
+        return cycle;
+    }
+
+    void add(String key, Decision decision) {
+        ArrayList<Decision> list = decisions.computeIfAbsent(key, k -> new ArrayList<>());
+        synchronized (list) {
+            list.add(decision);
+        }
+    }
+
+    Decision last(String key) {
+        ArrayList<Decision> list = decisions.get(key);
+        if (list != null) {
+            synchronized (list) {
+                return list.isEmpty() ? null : list.get(list.size() - 1);
+            }
+        }
+        return null;
+    }
+
+    Decision get(String key, int index) {
+        ArrayList<Decision> list = decisions.get(key);
+        if (list != null) {
+            synchronized (list) {
+                return index < list.size() ? list.get(index) : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the schedule keys of the transactions that took decisions in this schedule
+     */
+    public Set<String> keys() {
+        return new TreeSet<>(decisions.keySet());
+    }
+
+    /**
+     * @return the decisions taken for the given schedule key, in the order they were taken
+     */
+    public List<Decision> decisions(String key) {
+        ArrayList<Decision> list = decisions.get(key);
+        if (list != null) {
+            synchronized (list) {
+                return new ArrayList<>(list);
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * @return the number of decisions in this schedule
+     */
+    public int size() {
+        int size = 0;
+        for (ArrayList<Decision> list : decisions.values()) {
+            synchronized (list) {
+                size += list.size();
+            }
+        }
+        return size;
+    }
+
+    public void write(Path file) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeLong(cycle);
+            out.writeInt(decisions.size());
+            for (Map.Entry<String, ArrayList<Decision>> e : decisions.entrySet()) {
+                out.writeUTF(e.getKey());
+                synchronized (e.getValue()) {
+                    out.writeInt(e.getValue().size());
+                    for (Decision d : e.getValue()) {
+                        out.writeByte(d.merge);
+                        out.writeInt(d.order.length);
+                        for (int i : d.order) {
+                            out.writeInt(i);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static Schedule read(Path file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            Schedule schedule = new Schedule(in.readLong());
+            int nrOfKeys = in.readInt();
+            for (int k = 0; k < nrOfKeys; k++) {
+                String key = in.readUTF();
+                int nrOfDecisions = in.readInt();
+                for (int d = 0; d < nrOfDecisions; d++) {
+                    byte merge = in.readByte();
+                    int[] order = new int[in.readInt()];
+                    for (int i = 0; i < order.length; i++) {
+                        order[i] = in.readInt();
+                    }
+                    schedule.add(key, new Decision(order, merge));
+                }
+            }
+            return schedule;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Schedule[cycle=" + cycle + ", decisions=" + size() + "]";
+    }
+}
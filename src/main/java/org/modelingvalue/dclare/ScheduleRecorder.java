@@ -0,0 +1,103 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+// (C) Copyright 2018-2023 Modeling Value Group B.V. (http://modelingvalue.org)                                        ~
+//                                                                                                                     ~
+// Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in      ~
+// compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0  ~
+// Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on ~
+// an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the  ~
+// specific language governing permissions and limitations under the License.                                          ~
+//                                                                                                                     ~
+// Maintainers:                                                                                                        ~
+//     Wim Bast, Tom Brus, Ronald Krijgsheld                                                                           ~
+// Contributors:                                                                                                       ~
+//     Arjan Kok, Carel Bast                                                                                           ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.dclare;
+
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.modelingvalue.collections.Collection;
+import org.modelingvalue.collections.List;
+
+/**
+ * An {@link OrderingStrategy} that delegates the ordering to another strategy and records every decision and merge
+ * outcome in a {@link Schedule} per cycle. Only the schedules of the last <code>maxCycles</code> cycles are kept, so the
+ * recorder can stay on in production and the schedule of a slow cycle can be {@link Schedule#write(java.nio.file.Path)
+ * written} afterwards.
+ */
+public class ScheduleRecorder implements OrderingStrategy {
+    private final OrderingStrategy                      delegate;
+    private final int                                   maxCycles;
+    private final ConcurrentSkipListMap<Long, Schedule> schedules = new ConcurrentSkipListMap<>();
+
+    public ScheduleRecorder(OrderingStrategy delegate, int maxCycles) {
+        if (maxCycles < 1) {
+            throw new IllegalArgumentException("maxCycles must be at least 1");
+        }
+        this.delegate = delegate;
+        this.maxCycles = maxCycles;
+    }
+
+    @Override
+    public <T extends TransactionClass> List<T> order(MutableTransaction tx, Collection<T> todo) {
+        List<T> in = OrderingStrategy.stable(tx, todo);
+        List<T> out = delegate.order(tx, in);
+        HashMap<T, Integer> index = new HashMap<>();
+        int i = 0;
+        for (T t : in) {
+            index.put(t, i++);
+        }
+        int[] order = new int[out.size()];
+        i = 0;
+        for (T t : out) {
+            order[i++] = index.get(t);
+        }
+        schedule(tx).add(tx.scheduleKey(), new Schedule.Decision(order, Schedule.NONE));
+        return out;
+    }
+
+    @Override
+    public boolean parallel(MutableTransaction tx) {
+        return delegate.parallel(tx);
+    }
+
+    @Override
+    public void merged(MutableTransaction tx, boolean conflict) {
+        Schedule.Decision decision = schedule(tx).last(tx.scheduleKey());
+        if (decision != null) {
+            decision.merge(conflict ? Schedule.CONFLICT : Schedule.MERGED);
+        }
+        delegate.merged(tx, conflict);
+    }
+
+    private Schedule schedule(MutableTransaction tx) {
+        long cycle = tx.universeTransaction().stats().runCount();
+        Schedule schedule = schedules.get(cycle);
+        if (schedule == null) {
+            schedule = schedules.computeIfAbsent(cycle, Schedule::new);
+            schedules.headMap(cycle - maxCycles, true).clear();
+        }
+        return schedule;
+    }
+
+    /**
+     * @return the schedule of the given cycle (see {@link UniverseStatistics#runCount()}), or null if it is not recorded (anymore)
+     */
+    public Schedule schedule(long cycle) {
+        return schedules.get(cycle);
+    }
+
+    /**
+     * @return the schedule of the last completed cycle, or null if none is recorded
+     */
+    public Schedule lastSchedule(UniverseTransaction universeTransaction) {
+        return schedules.get(universeTransaction.stats().runCount() - 1);
+    }
+
+    @Override
+    public String toString() {
+        return "RECORDING(" + delegate + ")";
+    }
+}
@@ -0,0 +1,121 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+// (C) Copyright 2018-2023 Modeling Value Group B.V. (http://modelingvalue.org)                                        ~
+//                                                                                                                     ~
+// Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in      ~
+// compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0  ~
+// Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on ~
+// an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the  ~
+// specific language governing permissions and limitations under the License.                                          ~
+//                                                                                                                     ~
+// Maintainers:                                                                                                        ~
+//     Wim Bast, Tom Brus, Ronald Krijgsheld                                                                           ~
+// Contributors:                                                                                                       ~
+//     Arjan Kok, Carel Bast                                                                                           ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.dclare;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.modelingvalue.collections.Collection;
+import org.modelingvalue.collections.List;
+
+/**
+ * An {@link OrderingStrategy} that replays a recorded {@link Schedule}: every {@link MutableTransaction} gets the
+ * orders that were recorded for its {@link MutableTransaction#scheduleKey()}, in the same sequence, and the parallel runs
+ * that ended in a merge conflict are run sequentially right away, as they were after the conflict. The cycle number is
+ * not used, so a schedule recorded in production can be replayed on a universe that is started from the same state.
+ * Every cycle replays the schedule from its first decision.
+ * Decisions that no longer match (e.g. because the number of queued elements differs) are taken by the fallback
+ * strategy and counted as divergence.
+ */
+public class ScheduleReplayer implements OrderingStrategy {
+    private final Schedule                          schedule;
+    private final OrderingStrategy                  fallback;
+    private final AtomicReference<Cycle>            cycle       = new AtomicReference<>();
+    private final LongAdder                         divergences = new LongAdder();
+
+    private static final class Cursor {
+        private int               next;
+        private Schedule.Decision current;
+    }
+
+    private static final class Cycle {
+        private final long                              nr;
+        private final ConcurrentHashMap<String, Cursor> cursors = new ConcurrentHashMap<>();
+
+        private Cycle(long nr) {
+            this.nr = nr;
+        }
+    }
+
+    public ScheduleReplayer(Schedule schedule, OrderingStrategy fallback) {
+        this.schedule = schedule;
+        this.fallback = fallback;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends TransactionClass> List<T> order(MutableTransaction tx, Collection<T> todo) {
+        Cursor cursor = cursors(tx).computeIfAbsent(tx.scheduleKey(), k -> new Cursor());
+        List<T> in = OrderingStrategy.stable(tx, todo);
+        Schedule.Decision decision = schedule.get(tx.scheduleKey(), cursor.next++);
+        if (decision == null || decision.order().length != in.size()) {
+            cursor.current = null;
+            divergences.increment();
+            return fallback.order(tx, in);
+        }
+        Object[] elements = new Object[in.size()];
+        int i = 0;
+        for (T t : in) {
+            elements[i++] = t;
+        }
+        Object[] ordered = new Object[elements.length];
+        for (i = 0; i < ordered.length; i++) {
+            ordered[i] = elements[decision.order()[i]];
+        }
+        cursor.current = decision;
+        return List.of((T[]) ordered);
+    }
+
+    @Override
+    public boolean parallel(MutableTransaction tx) {
+        Cursor cursor = cursors(tx).get(tx.scheduleKey());
+        return cursor != null && cursor.current != null ? cursor.current.merge() != Schedule.CONFLICT : fallback.parallel(tx);
+    }
+
+    @Override
+    public void merged(MutableTransaction tx, boolean conflict) {
+        Cursor cursor = cursors(tx).get(tx.scheduleKey());
+        if (cursor != null && cursor.current != null && cursor.current.merge() != (conflict ? Schedule.CONFLICT : Schedule.MERGED)) {
+            divergences.increment();
+        }
+    }
+
+    /**
+     * @return the cursors of the cycle the given transaction runs in, every cycle replays the schedule from the start
+     */
+    private ConcurrentHashMap<String, Cursor> cursors(MutableTransaction tx) {
+        long nr = tx.universeTransaction().stats().runCount();
+        Cycle current = cycle.get();
+        while (current == null || current.nr != nr) {
+            Cycle next = new Cycle(nr);
+            current = cycle.compareAndSet(current, next) ? next : cycle.get();
+        }
+        return current.cursors;
+    }
+
+    /**
+     * @return the number of decisions that could not be replayed
+     */
+    public long getNrOfDivergences() {
+        return divergences.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "REPLAYING(" + schedule + ")";
+    }
+}
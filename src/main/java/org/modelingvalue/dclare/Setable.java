@@ -18,6 +18,10 @@ package org.modelingvalue.dclare;
 import static org.modelingvalue.dclare.CoreSetableModifier.symmetricOpposite;
 import static org.modelingvalue.dclare.Priority.one;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -41,6 +45,65 @@ public class Setable<O, T> extends Getable<O, T> {
     private static final boolean          DANGER_ALWAYS_ALLOW_ORPHANS = Boolean.getBoolean("DANGER_ALWAYS_ALLOW_ORPHANS");
 
     private static final Context<Boolean> MOVING                      = Context.of(false);
+    private static volatile boolean       anyIndexed;
+
+    /**
+     * The reverse index of an {@link CoreSetableModifier#indexed} setable: every value (or element of a collection value)
+     * to the mutables that have it. Each value has its own {@link Observed} on the {@link Universe}, so the index is part
+     * of the state and merges like any other set, and an observer that looks up one value only depends on that value.
+     * <p>
+     * An {@link Observed} is identified by its id, so the entry of a value can be created again at any time. The entries
+     * are only cached weakly, while a state or an observer refers to them, so values that are no longer used are not kept.
+     */
+    public static final class Index {
+        private final Setable<?, ?>                                    setable;
+        private final ConcurrentHashMap<Object, IndexEntry>            entries = new ConcurrentHashMap<>();
+        private final ReferenceQueue<Observed<Universe, Set<Mutable>>> cleared = new ReferenceQueue<>();
+
+        private Index(Setable<?, ?> setable) {
+            this.setable = setable;
+        }
+
+        /**
+         * @return the observed set of mutables that have the given value
+         */
+        @SuppressWarnings("unchecked")
+        public Observed<Universe, Set<Mutable>> of(Object value) {
+            for (Reference<?> ref = cleared.poll(); ref != null; ref = cleared.poll()) {
+                entries.remove(((IndexEntry) ref).value, ref);
+            }
+            IndexEntry entry = entries.get(value);
+            Observed<Universe, Set<Mutable>> observed = entry != null ? entry.get() : null;
+            if (observed == null) {
+                Object[] result = new Object[1];
+                entries.compute(value, (v, e) -> {
+                    Observed<Universe, Set<Mutable>> o = e != null ? e.get() : null;
+                    if (o == null) {
+                        o = Observed.of(Pair.of(Pair.of(setable, "index"), v), Set.of(), CoreSetableModifier.plumbing, CoreSetableModifier.doNotClear);
+                        e = new IndexEntry(v, o, cleared);
+                    }
+                    result[0] = o;
+                    return e;
+                });
+                observed = (Observed<Universe, Set<Mutable>>) result[0];
+            }
+            return observed;
+        }
+
+        @Override
+        public String toString() {
+            return setable + ".index";
+        }
+
+        private static final class IndexEntry extends WeakReference<Observed<Universe, Set<Mutable>>> {
+            private final Object value;
+
+            private IndexEntry(Object value, Observed<Universe, Set<Mutable>> observed, ReferenceQueue<Observed<Universe, Set<Mutable>>> queue) {
+                super(observed, queue);
+                this.value = value;
+            }
+        }
+    }
 
     public static <C, V> Setable<C, V> of(Object id, V def, SetableModifier<?>... modifiers) {
         return new Setable<>(id, c -> def, null, null, null, modifiers);
@@ -98,6 +161,7 @@ public class Setable<O, T> extends Getable<O, T> {
     private final boolean                                preserved;
     private final boolean                                doNotClear;
     private final Direction                              direction;
+    private final Index                                  index;
 
     private Boolean                                      isReference;
     private Constant<O, T>                               constant;
@@ -122,6 +186,10 @@ public class Setable<O, T> extends Getable<O, T> {
         this.doNotClear = hasModifier(CoreSetableModifier.doNotClear);
         Direction dir = getModifier(Direction.class);
         this.direction = dir == null ? Direction.DEFAULT : dir;
+        this.index = hasModifier(CoreSetableModifier.indexed) ? new Index(this) : null;
+        if (index != null) {
+            anyIndexed = true;
+        }
     }
 
     public boolean hasModifier(SetableModifier<?> modifier) {
@@ -172,6 +240,30 @@ public class Setable<O, T> extends Getable<O, T> {
         return orphansAllowed;
     }
 
+    public boolean isIndexed() {
+        return index != null;
+    }
+
+    /**
+     * @return the reverse index of this setable, or null if it is not {@link CoreSetableModifier#indexed}
+     */
+    public Index index() {
+        return index;
+    }
+
+    static boolean anyIndexed() {
+        return anyIndexed;
+    }
+
+    /**
+     * The mutables that have the given value, or that have it as element of their collection value, for this
+     * {@link CoreSetableModifier#indexed} setable. Within an observer this adds a single dependency: on the index entry of
+     * that value.
+     */
+    public Set<Mutable> lookup(Object value) {
+        return LeafTransaction.getCurrent().lookup(this, value);
+    }
+
     public boolean isReference() {
         return isReference != null && isReference;
     }
@@ -204,7 +296,7 @@ public class Setable<O, T> extends Getable<O, T> {
     }
 
     protected boolean isHandlingChange() {
-        return changed != null || containment || opposite != null;
+        return changed != null || containment || opposite != null || index != null;
     }
 
     @SuppressWarnings({"unchecked", "rawtypes"})
@@ -241,6 +333,26 @@ public class Setable<O, T> extends Getable<O, T> {
                     added -> opp.add(added, object), //
                     removed -> opp.remove(removed, object));
         }
+        if (index != null && object instanceof Mutable) {
+            Universe universe = tx.universeTransaction().universe();
+            Setable.diff(preValue, postValue, //
+                    added -> tx.set(universe, index.of(added), Set::add, (Mutable) object), //
+                    removed -> tx.set(universe, index.of(removed), Set::remove, (Mutable) object));
+        }
+    }
+
+    /**
+     * Adds the given value of the given mutable to the index of this {@link CoreSetableModifier#indexed} setable in the
+     * given state, for states that are not built through transactions (see {@link State#reindex()}).
+     */
+    protected State index(State state, Mutable object, T value) {
+        State[] result = new State[]{state};
+        Universe universe = state.universeTransaction().universe();
+        Setable.<T, Object> diff(null, value, //
+                added -> result[0] = result[0].set(universe, index.of(added), Set::add, object), //
+                removed -> {
+                });
+        return result[0];
     }
 
     protected void init(T postValue) {
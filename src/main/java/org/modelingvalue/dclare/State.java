@@ -170,38 +170,69 @@ public class State extends StateMap implements IState, Serializable {
         for (int i = 0; i < length; i++) {
             maps[i] = branches[i].map();
         }
-        return newState(map().merge((o, ps, pss, pl) -> {
-            DefaultMap<Setable, Object> props = ps.merge((p, v, vs, vl) -> {
-                Object r = v;
-                if (v instanceof Mergeable) {
-                    r = ((Mergeable) v).merge(vs, (int) vl);
-                } else {
-                    for (int i = 0; i < vl; i++) {
-                        if (vs[i] != null && !vs[i].equals(v)) {
-                            if (!Objects.equals(r, v)) {
-                                if (changeHandler != null) {
-                                    changeHandler.handleMergeConflict(o, p, v, vs);
-                                } else {
-                                    throw new NotMergeableException(o + "." + p + "= " + v + " -> " + StringUtil.toString(vs));
-                                }
+        return newState(map().merge((o, ps, pss, pl) -> mergeProperties(changeHandler, o, ps, pss, pl), maps, maps.length));
+    }
+
+    /**
+     * Merges like {@link #merge(StateMergeHandler, State[], int)}, but partitions the work per object. The objects that
+     * changed in any of the branches are collected first, after which every one of them is merged in parallel, in exactly
+     * the same way as the serial merge does. Conflicts are therefore detected identically and the change handler gets the
+     * same calls, only not on one thread and not in the same order.
+     */
+    @SuppressWarnings("unchecked")
+    public State mergeParallel(StateMergeHandler changeHandler, State[] branches, int length) {
+        DefaultMap<Object, DefaultMap<Setable, Object>>[] maps = new DefaultMap[length];
+        for (int i = 0; i < length; i++) {
+            maps[i] = branches[i].map();
+        }
+        DefaultMap<Object, DefaultMap<Setable, Object>> base = map();
+        Set<Object> changed = Collection.of(maps).flatMap(m -> base.diff(m).map(Entry::getKey)).asSet();
+        Map<Object, DefaultMap<Setable, Object>> merged = changed.asMap(o -> {
+            DefaultMap<Setable, Object>[] pss = new DefaultMap[length];
+            for (int i = 0; i < length; i++) {
+                pss[i] = maps[i].get(o);
+            }
+            return Entry.of(o, mergeProperties(changeHandler, o, base.get(o), pss, length));
+        });
+        DefaultMap<Object, DefaultMap<Setable, Object>> result = base;
+        for (Entry<Object, DefaultMap<Setable, Object>> e : merged) {
+            result = e.getValue().isEmpty() ? result.removeKey(e.getKey()) : result.put(e);
+        }
+        return newState(result);
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private DefaultMap<Setable, Object> mergeProperties(StateMergeHandler changeHandler, Object o, DefaultMap<Setable, Object> ps, DefaultMap<Setable, Object>[] pss, int pl) {
+        DefaultMap<Setable, Object> props = ps.merge((p, v, vs, vl) -> {
+            Object r = v;
+            if (v instanceof Mergeable) {
+                r = ((Mergeable) v).merge(vs, (int) vl);
+            } else {
+                for (int i = 0; i < vl; i++) {
+                    if (vs[i] != null && !vs[i].equals(v)) {
+                        if (!Objects.equals(r, v)) {
+                            if (changeHandler != null) {
+                                changeHandler.handleMergeConflict(o, p, v, vs);
                             } else {
-                                r = vs[i];
+                                throw new NotMergeableException(o + "." + p + "= " + v + " -> " + StringUtil.toString(vs));
                             }
+                        } else {
+                            r = vs[i];
                         }
                     }
                 }
-                return r;
-            }, pss, pl);
-            if (changeHandler != null) {
-                for (Entry<Setable, Object> p : props) {
-                    if (p != ps.getEntry(p.getKey())) {
-                        deduplicate(p);
-                        changeHandler.handleChange(o, p.getKey(), ps, pss, props, this);
-                    }
+            }
+            return r;
+        }, pss, pl);
+        if (changeHandler != null) {
+            for (Entry<Setable, Object> p : props) {
+                if (p != ps.getEntry(p.getKey())) {
+                    deduplicate(p);
+                    changeHandler.handleChange(o, p.getKey(), ps, pss, props, this);
                 }
             }
-            return props;
-        }, maps, maps.length));
+        }
+        return props;
     }
 
     @Override
@@ -236,6 +267,55 @@ public class State extends StateMap implements IState, Serializable {
         }, (a, b) -> a.addAll(b, Integer::sum)));
     }
 
+    /**
+     * @return the mutables that have the given value for the given {@link CoreSetableModifier#indexed} setable in this state
+     */
+    public <O, T> Set<Mutable> lookup(Setable<O, T> setable, Object value) {
+        if (!setable.isIndexed()) {
+            throw new IllegalArgumentException("The setable " + setable + " is not indexed");
+        }
+        return value == null ? Set.of() : get(universeTransaction.universe(), setable.index().of(value));
+    }
+
+    /**
+     * @return the active instances of the given class in this state, see {@link MutableClass#dExtent()}
+     */
+    public Set<Mutable> extent(MutableClass cls) {
+        return get(universeTransaction.universe(), universeTransaction.extent(cls));
+    }
+
+    /**
+     * @return this state with the values of all {@link CoreSetableModifier#indexed} setables added to their indexes and, if
+     *         extents are kept, the universe and all contained mutables added to the extents of their classes, as
+     *         {@link Mutable#dActivate()} does, for states that are not built through transactions, e.g. a start state read
+     *         from a {@link StateMap}
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public State reindex() {
+        State result = this;
+        if (universeTransaction.getConfig().isExtentIndex()) {
+            Universe universe = universeTransaction.universe();
+            java.util.Map<MutableClass, Set<Mutable>> extents = new java.util.HashMap<>();
+            extents.put(universe.dClass(), Set.of(universe));
+            for (Mutable mutable : getObjects(Mutable.class)) {
+                if (get(mutable, Mutable.D_PARENT_CONTAINING) != null) {
+                    extents.merge(mutable.dClass(), Set.of(mutable), Set::addAll);
+                }
+            }
+            for (java.util.Map.Entry<MutableClass, Set<Mutable>> e : extents.entrySet()) {
+                result = result.set(universe, universeTransaction.extent(e.getKey()), Set::addAll, e.getValue());
+            }
+        }
+        if (Setable.anyIndexed()) {
+            for (Entry<Object, Collection<Entry<Setable, Object>>> e : filter(o -> o instanceof Mutable, Setable::isIndexed)) {
+                for (Entry<Setable, Object> p : e.getValue()) {
+                    result = p.getKey().index(result, (Mutable) e.getKey(), p.getValue());
+                }
+            }
+        }
+        return result;
+    }
+
     @Override
     public <R> R get(Supplier<R> supplier) {
         ReadOnlyTransaction tx = universeTransaction.runOnState.openTransaction(universeTransaction);
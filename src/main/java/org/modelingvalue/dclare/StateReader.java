@@ -0,0 +1,90 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+// (C) Copyright 2018-2023 Modeling Value Group B.V. (http://modelingvalue.org)                                        ~
+//                                                                                                                     ~
+// Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in      ~
+// compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0  ~
+// Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on ~
+// an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the  ~
+// specific language governing permissions and limitations under the License.                                          ~
+//                                                                                                                     ~
+// Maintainers:                                                                                                        ~
+//     Wim Bast, Tom Brus, Ronald Krijgsheld                                                                           ~
+// Contributors:                                                                                                       ~
+//     Arjan Kok, Carel Bast                                                                                           ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.dclare;
+
+import java.util.function.Supplier;
+
+import org.modelingvalue.collections.Collection;
+import org.modelingvalue.collections.util.Pair;
+
+/**
+ * Lightweight, thread-safe reader of a committed {@link State}. Property values are looked up directly in the state,
+ * without opening a {@link ReadOnlyTransaction} and without installing it in the {@link LeafTransaction} context, so any
+ * number of (virtual) threads can read in parallel without sharing anything but the immutable state.
+ * <p>
+ * Only the stored values are read: overrides of {@link Getable#get(Object)} are not called. {@link Constant}s are not
+ * stored in the state; they, and any other read that needs the transaction context, go through {@link #query(Supplier)},
+ * which has the full semantics of {@link State#get(Supplier)}.
+ */
+public final class StateReader {
+    private final State state;
+
+    private StateReader(State state) {
+        this.state = state;
+    }
+
+    public static StateReader of(State state) {
+        if (state == null) {
+            throw new IllegalArgumentException("state is null");
+        }
+        return new StateReader(state);
+    }
+
+    public State state() {
+        return state;
+    }
+
+    public <O, T> T get(O object, Getable<O, T> getable) {
+        if (getable instanceof Constant) {
+            return state.get(() -> getable.get(object));
+        }
+        return state.get(object, getable);
+    }
+
+    public <O, T, E> Collection<E> getCollection(O object, Getable<O, T> getable) {
+        return getable.collection(get(object, getable));
+    }
+
+    public Mutable parent(Mutable mutable) {
+        return state.getA(mutable, Mutable.D_PARENT_CONTAINING);
+    }
+
+    public Setable<Mutable, ?> containing(Mutable mutable) {
+        Pair<Mutable, Setable<Mutable, ?>> pair = state.get(mutable, Mutable.D_PARENT_CONTAINING);
+        return pair != null ? pair.b() : null;
+    }
+
+    public boolean hasAncestor(Mutable mutable, Mutable ancestor) {
+        for (Mutable parent = parent(mutable); parent != null; parent = parent(parent)) {
+            if (parent.equals(ancestor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs the supplier in a {@link ReadOnlyTransaction} on the state, for reads that need the transaction context.
+     */
+    public <R> R query(Supplier<R> supplier) {
+        return state.get(supplier);
+    }
+
+    @Override
+    public String toString() {
+        return "StateReader[" + state.transactionId() + "]";
+    }
+}
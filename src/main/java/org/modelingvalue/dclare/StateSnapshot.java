@@ -0,0 +1,353 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+// (C) Copyright 2018-2023 Modeling Value Group B.V. (http://modelingvalue.org)                                        ~
+//                                                                                                                     ~
+// Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in      ~
+// compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0  ~
+// Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on ~
+// an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the  ~
+// specific language governing permissions and limitations under the License.                                          ~
+//                                                                                                                     ~
+// Maintainers:                                                                                                        ~
+//     Wim Bast, Tom Brus, Ronald Krijgsheld                                                                           ~
+// Contributors:                                                                                                       ~
+//     Arjan Kok, Carel Bast                                                                                           ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.dclare;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.modelingvalue.collections.DefaultMap;
+import org.modelingvalue.collections.Entry;
+import org.modelingvalue.collections.util.Pair;
+import org.modelingvalue.dclare.sync.JsonIC;
+import org.modelingvalue.dclare.sync.SerializationHelper;
+
+/**
+ * A binary snapshot of a {@link StateMap} that is read through a memory mapped file.
+ * <p>
+ * The file consists of a header with the {@link Setable} dictionary, an index with one fixed size entry per {@link Mutable},
+ * the identity table with the serialized {@link Mutable}s and the value section with the properties of every {@link Mutable}.
+ * The containment ({@link Mutable#D_PARENT_CONTAINING}) is kept in the index, so that a subtree can be selected without
+ * reading any values. Nothing is deserialized when the snapshot is opened: {@link Mutable}s, {@link Setable}s and values are
+ * only materialised when they are asked for, for instance by {@link #toStateMap(Mutable)} for the subtree that is needed as
+ * start state of a {@link UniverseTransaction}.
+ * <p>
+ * Only the non plumbing properties and the {@link Mutable#D_PARENT_CONTAINING} are stored, the rest is derived again when
+ * the {@link UniverseTransaction} starts. Snapshots are limited to 2GB, the size of one {@link java.nio.MappedByteBuffer}.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class StateSnapshot {
+    private static final int                                    MAGIC      = 0x44434e53;
+    private static final int                                    VERSION    = 1;
+    private static final int                                    NONE       = -1;
+    private static final int                                    INDEX_SIZE = 4 * Integer.BYTES;
+
+    private final SerializationHelper                           helper;
+    private final ByteBuffer                                    buffer;
+    private final String                                        label;
+    private final String[]                                      tags;
+    private final int                                           size;
+    private final int                                           index;
+    private final Mutable[]                                     mutables;
+    private final java.util.Map<Pair<Object, Integer>, Setable> setables   = new ConcurrentHashMap<>();
+    private volatile java.util.Map<String, Integer>             identities;
+
+    public static StateSnapshot open(Path file, SerializationHelper<?, ?, ?> helper) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new StateSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), helper);
+        }
+    }
+
+    private StateSnapshot(ByteBuffer buffer, SerializationHelper<?, ?, ?> helper) throws IncompatibleSnapshotException {
+        this.buffer = buffer;
+        this.helper = helper;
+        if (buffer.limit() < 2 * Integer.BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != VERSION) {
+            throw new IncompatibleSnapshotException("not a version " + VERSION + " state snapshot");
+        }
+        int pos = 2 * Integer.BYTES;
+        label = string(pos);
+        pos += Integer.BYTES + buffer.getInt(pos);
+        size = buffer.getInt(pos);
+        pos += Integer.BYTES;
+        tags = new String[buffer.getInt(pos)];
+        pos += Integer.BYTES;
+        for (int i = 0; i < tags.length; i++) {
+            tags[i] = string(pos);
+            pos += Integer.BYTES + buffer.getInt(pos);
+        }
+        index = pos;
+        mutables = new Mutable[size];
+    }
+
+    /**
+     * Thrown by {@link #open(Path, SerializationHelper)} when the file is not a snapshot of the supported format version.
+     */
+    public static final class IncompatibleSnapshotException extends IOException {
+        private static final long serialVersionUID = -2419476170237516950L;
+
+        public IncompatibleSnapshotException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * @return the label given when the snapshot was written
+     */
+    public String label() {
+        return label;
+    }
+
+    /**
+     * @return the number of {@link Mutable}s in the snapshot
+     */
+    public int size() {
+        return size;
+    }
+
+    public Mutable mutable(int i) {
+        Mutable mutable = mutables[i];
+        if (mutable == null) {
+            mutable = helper.deserializeMutable(string(buffer.getInt(index + i * INDEX_SIZE)));
+            mutables[i] = mutable;
+        }
+        return mutable;
+    }
+
+    /**
+     * @param mutable the {@link Mutable} to look for
+     * @return the index of the {@link Mutable} in this snapshot, or -1 if it is not in the snapshot
+     */
+    public int indexOf(Mutable mutable) {
+        java.util.Map<String, Integer> ids = identities;
+        if (ids == null) {
+            synchronized (this) {
+                ids = identities;
+                if (ids == null) {
+                    ids = new HashMap<>(size * 2);
+                    for (int i = 0; i < size; i++) {
+                        ids.put(string(buffer.getInt(index + i * INDEX_SIZE)), i);
+                    }
+                    identities = ids;
+                }
+            }
+        }
+        return ids.getOrDefault(helper.serializeMutable(mutable), NONE);
+    }
+
+    public DefaultMap<Setable, Object> getProperties(Mutable mutable) {
+        int i = indexOf(mutable);
+        return i == NONE ? StateMap.EMPTY_STATE_MAP.getProperties(mutable) : properties(i, StateMap.EMPTY_STATE_MAP.map());
+    }
+
+    public <O extends Mutable, T> T get(O mutable, Setable<O, T> setable) {
+        return StateMap.get(getProperties(mutable), setable);
+    }
+
+    /**
+     * Materialise the complete snapshot.
+     *
+     * @return the {@link StateMap} with all {@link Mutable}s of the snapshot
+     */
+    public StateMap toStateMap() {
+        DefaultMap<Object, DefaultMap<Setable, Object>> map = StateMap.EMPTY_STATE_MAP.map();
+        for (int i = 0; i < size; i++) {
+            map = map.put(mutable(i), properties(i, map));
+        }
+        return new StateMap(map);
+    }
+
+    /**
+     * Materialise only the containment subtree of the given root, all other records of the snapshot are not touched.
+     *
+     * @param root the root of the subtree, typically the {@link Universe}
+     * @return the {@link StateMap} with the root and all {@link Mutable}s it contains
+     */
+    public StateMap toStateMap(Mutable root) {
+        DefaultMap<Object, DefaultMap<Setable, Object>> map  = StateMap.EMPTY_STATE_MAP.map();
+        int                                             r    = indexOf(root);
+        if (r != NONE) {
+            byte[] in = new byte[size];
+            in[r] = 1;
+            for (int i = 0; i < size; i++) {
+                if (isContained(i, in)) {
+                    map = map.put(mutable(i), properties(i, map));
+                }
+            }
+        }
+        return new StateMap(map);
+    }
+
+    private boolean isContained(int i, byte[] in) {
+        int p = i;
+        while (in[p] == 0) {
+            int parent = parent(p);
+            if (parent == NONE) {
+                in[p] = 2;
+            } else {
+                p = parent;
+            }
+        }
+        boolean result = in[p] == 1;
+        for (p = i; in[p] == 0; p = parent(p)) {
+            in[p] = (byte) (result ? 1 : 2);
+        }
+        return result;
+    }
+
+    private int parent(int i) {
+        return buffer.getInt(index + i * INDEX_SIZE + 2 * Integer.BYTES);
+    }
+
+    private DefaultMap<Setable, Object> properties(int i, DefaultMap<Object, DefaultMap<Setable, Object>> map) {
+        Mutable                     mutable = mutable(i);
+        DefaultMap<Setable, Object> props   = map.get(mutable);
+        int                         entry   = index + i * INDEX_SIZE;
+        int                         parent  = buffer.getInt(entry + 2 * Integer.BYTES);
+        if (parent != NONE) {
+            Mutable pm = mutable(parent);
+            props = StateMap.setProperties(mutable, props, Mutable.D_PARENT_CONTAINING, Pair.of(pm, setable(pm, buffer.getInt(entry + 3 * Integer.BYTES))));
+        }
+        int pos = buffer.getInt(entry + Integer.BYTES);
+        for (int n = buffer.getInt(pos); n > 0; n--) {
+            pos += Integer.BYTES;
+            Setable setable = setable(mutable, buffer.getInt(pos));
+            pos += Integer.BYTES;
+            Object value = helper.deserializeValue(mutable, setable, JsonIC.fromJson(string(pos)));
+            pos += buffer.getInt(pos);
+            props = StateMap.setProperties(mutable, props, setable, value);
+        }
+        return props;
+    }
+
+    private Setable setable(Mutable mutable, int tag) {
+        Object clazz = helper.getMutableClass(mutable);
+        return setables.computeIfAbsent(Pair.of(clazz, tag), p -> helper.deserializeSetable((MutableClass) clazz, tags[tag]));
+    }
+
+    private String string(int pos) {
+        byte[] bytes = new byte[buffer.getInt(pos)];
+        buffer.get(pos + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write a snapshot of a {@link StateMap}.
+     *
+     * @param file     the file to write
+     * @param label    a label that can be read back with {@link #label()}, e.g. a version or hash of the model
+     * @param stateMap the {@link StateMap} to write
+     * @param helper   the helper that serializes the {@link Mutable}s, {@link Setable}s and values
+     */
+    public static void write(Path file, String label, StateMap stateMap, SerializationHelper<?, ?, ?> helper) throws IOException {
+        new Writer(helper).write(file, label, stateMap);
+    }
+
+    private static final class Writer {
+        private final SerializationHelper            helper;
+        private final java.util.Map<Object, Integer> indices = new HashMap<>();
+        private final java.util.List<Object>         objects = new ArrayList<>();
+        private final java.util.Map<String, Integer> tags    = new HashMap<>();
+        private final java.util.List<String>         names   = new ArrayList<>();
+
+        private Writer(SerializationHelper helper) {
+            this.helper = helper;
+        }
+
+        private void write(Path file, String label, StateMap stateMap) throws IOException {
+            for (Entry<Object, DefaultMap<Setable, Object>> e : stateMap.map()) {
+                if (isStored(e.getKey())) {
+                    indices.put(e.getKey(), objects.size());
+                    objects.add(e.getKey());
+                }
+            }
+            int[]                 ids     = new int[objects.size()];
+            int[]                 values  = new int[objects.size()];
+            int[]                 parents = new int[objects.size()];
+            int[]                 cont    = new int[objects.size()];
+            ByteArrayOutputStream bytes   = new ByteArrayOutputStream();
+            DataOutputStream      data    = new DataOutputStream(bytes);
+            for (int i = 0; i < objects.size(); i++) {
+                ids[i] = data.size();
+                writeString(data, helper.serializeMutable((Mutable) objects.get(i)));
+            }
+            for (int i = 0; i < objects.size(); i++) {
+                Object                                 o     = objects.get(i);
+                DefaultMap<Setable, Object>            props = stateMap.getProperties(o);
+                java.util.List<Entry<Setable, Object>> vals  = new ArrayList<>();
+                for (Entry<Setable, Object> p : props) {
+                    if (isStored(p.getKey())) {
+                        vals.add(p);
+                    }
+                }
+                Pair<Mutable, Setable> pc     = (Pair<Mutable, Setable>) props.get(Mutable.D_PARENT_CONTAINING);
+                Integer                parent = pc != null ? indices.get(pc.a()) : null;
+                parents[i] = parent != null ? parent : NONE;
+                cont[i] = parent != null ? tag(pc.b()) : NONE;
+                values[i] = data.size();
+                data.writeInt(vals.size());
+                for (Entry<Setable, Object> p : vals) {
+                    data.writeInt(tag(p.getKey()));
+                    writeString(data, JsonIC.toJson(helper.serializeValue(o, p.getKey(), p.getValue())));
+                }
+            }
+            ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+            DataOutputStream      header      = new DataOutputStream(headerBytes);
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            writeString(header, label);
+            header.writeInt(objects.size());
+            header.writeInt(names.size());
+            for (String name : names) {
+                writeString(header, name);
+            }
+            long start = (long) header.size() + (long) objects.size() * INDEX_SIZE;
+            if (start + data.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("state snapshot too large: " + (start + data.size()) + " bytes");
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                headerBytes.writeTo(out);
+                for (int i = 0; i < objects.size(); i++) {
+                    out.writeInt((int) start + ids[i]);
+                    out.writeInt((int) start + values[i]);
+                    out.writeInt(parents[i]);
+                    out.writeInt(cont[i]);
+                }
+                bytes.writeTo(out);
+            }
+        }
+
+        private int tag(Setable setable) {
+            return tags.computeIfAbsent(helper.serializeSetable(setable), t -> {
+                names.add(t);
+                return names.size() - 1;
+            });
+        }
+
+        private boolean isStored(Object object) {
+            return object instanceof Mutable && helper.mutableFilter().test(object);
+        }
+
+        private boolean isStored(Setable setable) {
+            return !setable.isPlumbing() && helper.setableFilter().test(setable);
+        }
+
+        private static void writeString(DataOutputStream out, String s) throws IOException {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+}
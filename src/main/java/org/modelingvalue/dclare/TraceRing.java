@@ -0,0 +1,153 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+// (C) Copyright 2018-2023 Modeling Value Group B.V. (http://modelingvalue.org)                                        ~
+//                                                                                                                     ~
+// Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in      ~
+// compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0  ~
+// Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on ~
+// an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the  ~
+// specific language governing permissions and limitations under the License.                                          ~
+//                                                                                                                     ~
+// Maintainers:                                                                                                        ~
+//     Wim Bast, Tom Brus, Ronald Krijgsheld                                                                           ~
+// Contributors:                                                                                                       ~
+//     Arjan Kok, Carel Bast                                                                                           ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.dclare;
+
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.modelingvalue.collections.Entry;
+import org.modelingvalue.collections.Set;
+import org.modelingvalue.collections.util.Pair;
+
+/**
+ * A bounded ring buffer of {@link ObserverTrace}s, kept outside the {@link State}. Recording is lock-free: a trace claims
+ * a sequence number and is published in its slot, overwriting the trace of one ring size earlier. The previous trace,
+ * done set and back trace of a trace are only resolved when they are asked for, e.g. for a
+ * {@link org.modelingvalue.dclare.ex.DebugTrace} or a {@link org.modelingvalue.dclare.ex.TooManyChangesException}. They
+ * are resolved in sequence order from the writers still in the ring, the same way as for traces recorded in the state.
+ * <p>
+ * That order is the global recording order, so the done set of a trace can hold writers of parallel branches that the
+ * branch of the trace never saw. Ring traces are therefore not used for the too-many-changes check of an observer run,
+ * only for reporting.
+ */
+public final class TraceRing {
+
+    private final int                                                      size;
+    private final AtomicReferenceArray<ObserverTrace>                      slots;
+    private final AtomicLong                                               next    = new AtomicLong();
+    // resolution state, guarded by this
+    private final java.util.Map<ObservedInstance, Set<ObserverTrace>>      writers = new HashMap<>();
+    private final java.util.Map<Pair<Mutable, Observer<?>>, ObserverTrace> last    = new HashMap<>();
+    private long                                                           resolved;
+
+    public TraceRing(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        this.size = size;
+        this.slots = new AtomicReferenceArray<>(size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of traces recorded since this ring was created
+     */
+    public long count() {
+        return next.get();
+    }
+
+    long claim() {
+        return next.getAndIncrement();
+    }
+
+    void publish(ObserverTrace trace) {
+        slots.set(index(trace.seq()), trace);
+    }
+
+    /**
+     * @return the traces still in the ring, oldest first
+     */
+    public java.util.List<ObserverTrace> traces() {
+        java.util.List<ObserverTrace> result = new java.util.ArrayList<>(size);
+        long end = next.get();
+        for (long s = Math.max(0, end - size); s < end; s++) {
+            ObserverTrace trace = slots.get(index(s));
+            if (trace != null && trace.seq() == s) {
+                result.add(trace);
+            }
+        }
+        return result;
+    }
+
+    void resolve(ObserverTrace upTo) {
+        awaitPublished(upTo.seq());
+        synchronized (this) {
+            while (!upTo.isResolved()) {
+                long s = resolved;
+                if (s > upTo.seq()) {
+                    // evicted before it was resolved, nothing left to trace back to
+                    upTo.resolve(null, oi -> Set.of());
+                    return;
+                }
+                long oldest = next.get() - size;
+                if (s < oldest) {
+                    resolved = oldest;
+                    continue;
+                }
+                ObserverTrace trace = slots.get(index(s));
+                if (trace != null && trace.seq() == s) {
+                    resolve(trace, oldest);
+                }
+                resolved = s + 1;
+                if (resolved % size == 0) {
+                    prune(resolved - size);
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits, without holding the resolution lock, until the traces before the given sequence number that can still be in
+     * the ring are published. A trace is published right after it claimed its number, so this wait is short.
+     */
+    private void awaitPublished(long upTo) {
+        for (long s = Math.max(0, upTo - size + 1); s < upTo; s++) {
+            ObserverTrace trace = slots.get(index(s));
+            while (trace == null || trace.seq() < s) {
+                Thread.onSpinWait();
+                trace = slots.get(index(s));
+            }
+        }
+    }
+
+    private void resolve(ObserverTrace trace, long oldest) {
+        Pair<Mutable, Observer<?>> key = Pair.of(trace.mutable(), trace.observer());
+        ObserverTrace previous = last.get(key);
+        trace.resolve(previous != null && previous.seq() >= oldest ? previous : null, oi -> {
+            Set<ObserverTrace> ws = writers.get(oi);
+            return ws == null ? Set.of() : ws.filter(w -> w.seq() >= oldest).asSet();
+        });
+        for (Entry<ObservedInstance, Object> e : trace.written()) {
+            writers.merge(e.getKey(), Set.of(trace), Set::addAll);
+        }
+        last.put(key, trace);
+    }
+
+    private void prune(long oldest) {
+        writers.replaceAll((oi, ws) -> ws.filter(w -> w.seq() >= oldest).asSet());
+        writers.values().removeIf(Set::isEmpty);
+        last.values().removeIf(t -> t.seq() < oldest);
+    }
+
+    private int index(long seq) {
+        return (int) (seq % size);
+    }
+
+}
@@ -81,6 +81,10 @@ public abstract class Transaction {
 
     public abstract Mutable mutable();
 
+    protected void trace(String tag, String message) {
+        universeTransaction().getConfig().getTraceSink().trace(tag, this, message);
+    }
+
     protected abstract String getCurrentTypeForTrace();
 
 }
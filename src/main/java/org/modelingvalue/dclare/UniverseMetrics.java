@@ -0,0 +1,193 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+// (C) Copyright 2018-2023 Modeling Value Group B.V. (http://modelingvalue.org)                                        ~
+//                                                                                                                     ~
+// Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in      ~
+// compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0  ~
+// Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on ~
+// an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the  ~
+// specific language governing permissions and limitations under the License.                                          ~
+//                                                                                                                     ~
+// Maintainers:                                                                                                        ~
+//     Wim Bast, Tom Brus, Ronald Krijgsheld                                                                           ~
+// Contributors:                                                                                                       ~
+//     Arjan Kok, Carel Bast                                                                                           ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.dclare;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.modelingvalue.dclare.UniverseTransaction.Status;
+
+/**
+ * The health of a {@link UniverseTransaction}, readable from any thread without taking a lock. Cycles and errors are
+ * counted with {@link LongAdder}s, the other figures are read from the {@link Status} published by the
+ * {@link org.modelingvalue.collections.util.StatusProvider} of the universe and from immutable fields that are only
+ * replaced by the main loop. The metrics can be exposed as MXBean ({@link #registerMBean()}) and/or through a
+ * {@link MetricsRegistry} ({@link #bindTo(MetricsRegistry)}).
+ */
+public class UniverseMetrics implements UniverseMetricsMXBean {
+    public static final String        DOMAIN      = "org.modelingvalue.dclare";
+
+    private final UniverseTransaction universeTransaction;
+    private final LongAdder           cycles      = new LongAdder();
+    private final LongAdder           errors      = new LongAdder();
+
+    private volatile double           cycleRate;
+    private long                      sampleCycles;
+    private long                      sampleNanos = System.nanoTime();
+    private ObjectName                objectName;
+
+    protected UniverseMetrics(UniverseTransaction universeTransaction) {
+        this.universeTransaction = universeTransaction;
+    }
+
+    public UniverseTransaction universeTransaction() {
+        return universeTransaction;
+    }
+
+    protected void cycle() {
+        cycles.increment();
+    }
+
+    protected void errors(int nr) {
+        errors.add(nr);
+    }
+
+    /**
+     * Called by the timer of the {@link UniverseTransaction} to compute the cycle rate.
+     */
+    protected void sample() {
+        long now = System.nanoTime();
+        long count = cycles.sum();
+        long elapsed = now - sampleNanos;
+        if (elapsed > 0) {
+            cycleRate = (count - sampleCycles) * 1_000_000_000.0 / elapsed;
+        }
+        sampleCycles = count;
+        sampleNanos = now;
+    }
+
+    @Override
+    public int getNumInQueue() {
+        return universeTransaction.numInQueue();
+    }
+
+    @Override
+    public String getMood() {
+        return universeTransaction.getMood().name();
+    }
+
+    @Override
+    public long getCycleCount() {
+        return cycles.sum();
+    }
+
+    /**
+     * @return the number of main loop cycles per second, sampled every timer tick of the universe
+     */
+    @Override
+    public double getCycleRate() {
+        return cycleRate;
+    }
+
+    @Override
+    public long getForwardCount() {
+        Status status = universeTransaction.getStatus();
+        return status.stats != null ? status.stats.forwardCount() : 0L;
+    }
+
+    /**
+     * @return all errors ever handled by the universe
+     */
+    @Override
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    /**
+     * @return the errors currently held by the universe
+     */
+    @Override
+    public int getCurrentErrorCount() {
+        return universeTransaction.errors.get().size();
+    }
+
+    @Override
+    public int getHistorySize() {
+        return universeTransaction.history().size();
+    }
+
+    @Override
+    public int getConstantStateSize() {
+        return universeTransaction.constantState().size();
+    }
+
+    @Override
+    public int getTmpConstantStateSize() {
+        ConstantState tmp = universeTransaction.tmpConstants();
+        return tmp != null ? tmp.size() : 0;
+    }
+
+    /**
+     * @return the largest number of change batches of an {@link ImperativeTransaction} that are not yet handled by the
+     *         dclare side
+     */
+    @Override
+    public long getImperativeLag() {
+        State state = universeTransaction.getStatus().state;
+        long lag = 0L;
+        if (state != null) {
+            for (ImperativeTransaction it : universeTransaction.getImperativeTransactions()) {
+                lag = Math.max(lag, it.lag(state));
+            }
+        }
+        return lag;
+    }
+
+    public void bindTo(MetricsRegistry registry) {
+        registry.gauge("dclare.queue.size", "Number of actions in the inQueue", this::getNumInQueue);
+        registry.gauge("dclare.mood", "Ordinal of the mood of the universe", () -> universeTransaction.getMood().ordinal());
+        registry.counter("dclare.cycles", "Number of main loop cycles", this::getCycleCount);
+        registry.gauge("dclare.cycle.rate", "Main loop cycles per second", this::getCycleRate);
+        registry.counter("dclare.forward", "Number of forward runs", this::getForwardCount);
+        registry.counter("dclare.errors", "Number of handled errors", this::getErrorCount);
+        registry.gauge("dclare.history.size", "Number of states in the history", this::getHistorySize);
+        registry.gauge("dclare.constants.size", "Number of objects with constants", this::getConstantStateSize);
+        registry.gauge("dclare.constants.tmp.size", "Number of objects with temporary constants", this::getTmpConstantStateSize);
+        registry.gauge("dclare.imperative.lag", "Largest number of unhandled imperative change batches", this::getImperativeLag);
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server under <code>org.modelingvalue.dclare:type=Universe,name=...</code>.
+     */
+    public synchronized void registerMBean() {
+        if (objectName == null) {
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                ObjectName name = new ObjectName(DOMAIN + ":type=Universe,name=" + ObjectName.quote(universeTransaction.universe().toString()));
+                server.registerMBean(this, name);
+                objectName = name;
+            } catch (JMException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    public synchronized void unregisterMBean() {
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                objectName = null;
+            }
+        }
+    }
+}
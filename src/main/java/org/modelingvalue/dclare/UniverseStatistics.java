@@ -19,6 +19,7 @@ import org.modelingvalue.collections.Set;
 import org.modelingvalue.collections.*;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 @SuppressWarnings({"unused", "rawtypes"})
 public class UniverseStatistics {
@@ -39,6 +40,16 @@ public class UniverseStatistics {
     private int                        mostChangesPerInstance;
     private long                       mostChangesPerInstanceEver;
     private ChampionChangesPerInstance championChangesPerInstance;
+    private AtomicLongArray            deferrals;
+    private long[]                     lastDeferrals;
+    private long[]                     deferralsEver;
+    private int[]                      iterations;
+    private int[]                      lastIterations;
+    private long[]                     iterationsEver;
+    private int                        mostIterationsEver;
+    private int                        orphanPasses;
+    private int                        lastOrphanPasses;
+    private long                       orphanPassesEver;
 
     public static class ChampionObserver {
         public final Observed                           observed;
@@ -141,7 +152,13 @@ public class UniverseStatistics {
     }
 
     public UniverseStatistics(UniverseTransaction tx) {
-        this.tx = tx;
+        this.tx             = tx;
+        this.deferrals      = new AtomicLongArray(Priority.ALL.length);
+        this.lastDeferrals  = new long[Priority.ALL.length];
+        this.deferralsEver  = new long[Priority.ALL.length];
+        this.iterations     = new int[Priority.ALL.length];
+        this.lastIterations = new int[Priority.ALL.length];
+        this.iterationsEver = new long[Priority.ALL.length];
     }
 
     public UniverseStatistics(UniverseStatistics o) {
@@ -161,6 +178,16 @@ public class UniverseStatistics {
         this.mostChangesPerInstance     = o.mostChangesPerInstance;
         this.mostChangesPerInstanceEver = o.mostChangesPerInstanceEver;
         this.championChangesPerInstance = o.championChangesPerInstance;
+        this.deferrals                  = new AtomicLongArray(o.deferrals());
+        this.lastDeferrals              = o.lastDeferrals.clone();
+        this.deferralsEver              = o.deferralsEver.clone();
+        this.iterations                 = o.iterations.clone();
+        this.lastIterations             = o.lastIterations.clone();
+        this.iterationsEver             = o.iterationsEver.clone();
+        this.mostIterationsEver         = o.mostIterationsEver;
+        this.orphanPasses               = o.orphanPasses;
+        this.lastOrphanPasses           = o.lastOrphanPasses;
+        this.orphanPassesEver           = o.orphanPassesEver;
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -193,6 +220,20 @@ public class UniverseStatistics {
         mostObserversEver          = Math.max(mostObserversEver, mostObs);
         mostObservedEver           = Math.max(mostObservedEver, mostObd);
         mostChangesPerInstanceEver = Math.max(mostChangesPerInstanceEver, mostChpi);
+
+        int totIter = 0;
+        for (int i = 0; i < Priority.ALL.length; i++) {
+            lastDeferrals[i] = deferrals.getAndSet(i, 0L);
+            deferralsEver[i] += lastDeferrals[i];
+            lastIterations[i] = iterations[i];
+            iterationsEver[i] += iterations[i];
+            totIter += iterations[i];
+            iterations[i] = 0;
+        }
+        mostIterationsEver = Math.max(mostIterationsEver, totIter);
+        lastOrphanPasses   = orphanPasses;
+        orphanPassesEver += orphanPasses;
+        orphanPasses = 0;
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -217,6 +258,97 @@ public class UniverseStatistics {
         return forwardCount;
     }
 
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    /**
+     * Called concurrently by the {@link ObserverTransaction}s for every deferral of an observer to the given priority.
+     */
+    void bumpDeferrals(Priority priority) {
+        deferrals.incrementAndGet(priority.ordinal());
+    }
+
+    /**
+     * @return the deferrals per {@link Priority} ordinal of the running cycle
+     */
+    public long[] deferrals() {
+        long[] result = new long[Priority.ALL.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = deferrals.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * @return the deferrals per {@link Priority} ordinal of the last completed cycle
+     */
+    public long[] lastDeferrals() {
+        return lastDeferrals.clone();
+    }
+
+    public long[] deferralsEver() {
+        return deferralsEver.clone();
+    }
+
+    public long deferrals(Priority priority) {
+        return deferrals.get(priority.ordinal());
+    }
+
+    public long lastDeferrals(Priority priority) {
+        return lastDeferrals[priority.ordinal()];
+    }
+
+    public long deferralsEver(Priority priority) {
+        return deferralsEver[priority.ordinal()];
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    void bumpIterations(Priority priority) {
+        iterations[priority.ordinal()]++;
+    }
+
+    /**
+     * @return the iterations of the priority loop per {@link Priority} ordinal of the last completed cycle
+     */
+    public int[] lastIterations() {
+        return lastIterations.clone();
+    }
+
+    public int iterations(Priority priority) {
+        return iterations[priority.ordinal()];
+    }
+
+    public int lastIterations(Priority priority) {
+        return lastIterations[priority.ordinal()];
+    }
+
+    public long iterationsEver(Priority priority) {
+        return iterationsEver[priority.ordinal()];
+    }
+
+    /**
+     * @return the most iterations of the priority loop that a single cycle needed, a high number points to a rule that does
+     *         not converge quickly
+     */
+    public int mostIterationsEver() {
+        return mostIterationsEver;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    void bumpOrphanPasses() {
+        orphanPasses++;
+    }
+
+    public int orphanPasses() {
+        return orphanPasses;
+    }
+
+    public int lastOrphanPasses() {
+        return lastOrphanPasses;
+    }
+
+    public long orphanPassesEver() {
+        return orphanPassesEver;
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     public int maxTotalNrOfChanges() {
         return tx.getConfig().getMaxTotalNrOfChanges();
@@ -391,16 +523,26 @@ public class UniverseStatistics {
                        + "    mostChangesPerInstance     = " + mostChangesPerInstance + "\n" //
                        + "    mostChangesPerInstanceEver = " + mostChangesPerInstanceEver + "\n" //
                        + "    championChangesPerInstance = " + championChangesPerInstance + "\n" //
+                       + "    lastDeferrals              = " + Arrays.toString(lastDeferrals) + "\n" //
+                       + "    deferralsEver              = " + Arrays.toString(deferralsEver) + "\n" //
+                       + "    lastIterations             = " + Arrays.toString(lastIterations) + "\n" //
+                       + "    iterationsEver             = " + Arrays.toString(iterationsEver) + "\n" //
+                       + "    mostIterationsEver         = " + mostIterationsEver + "\n" //
+                       + "    lastOrphanPasses           = " + lastOrphanPasses + "\n" //
+                       + "    orphanPassesEver           = " + orphanPassesEver + "\n" //
                 ;
     }
 
     public String shortString() {
-        return String.format("[debug=%-5s run=%6d forward=%6d changes=%6d/%6d/%6d pInst=%6d/%6d/%s observers=%6d/%6d/%s observed=%6d/%6d/%s]", //
+        return String.format("[debug=%-5s run=%6d forward=%6d changes=%6d/%6d/%6d pInst=%6d/%6d/%s observers=%6d/%6d/%s observed=%6d/%6d/%s iterations=%s/%6d deferrals=%s orphans=%6d/%6d]", //
                              debugging, runCount, forwardCount, //
                              totalChanges, mostTotalChangesEver, totalChangesEver, //
                              mostChangesPerInstance, mostChangesPerInstanceEver, championChangesPerInstance, //
                              mostObservers, mostObserversEver, championObservers, //
-                             mostObserved, mostObservedEver, championObserved //
+                             mostObserved, mostObservedEver, championObserved, //
+                             Arrays.toString(lastIterations), mostIterationsEver, //
+                             Arrays.toString(lastDeferrals), //
+                             lastOrphanPasses, orphanPassesEver //
                             );
     }
 
@@ -429,6 +571,13 @@ public class UniverseStatistics {
                        && mostChangesPerInstance == that.mostChangesPerInstance //
                        && mostChangesPerInstanceEver == that.mostChangesPerInstanceEver //
                        && Objects.equals(championChangesPerInstance, that.championChangesPerInstance) //
+                       && Arrays.equals(deferrals(), that.deferrals()) //
+                       && Arrays.equals(lastDeferrals, that.lastDeferrals) //
+                       && Arrays.equals(iterations, that.iterations) //
+                       && Arrays.equals(lastIterations, that.lastIterations) //
+                       && mostIterationsEver == that.mostIterationsEver //
+                       && orphanPasses == that.orphanPasses //
+                       && lastOrphanPasses == that.lastOrphanPasses //
                 ;
     }
 
@@ -449,7 +598,14 @@ public class UniverseStatistics {
                             championObserved, //
                             mostChangesPerInstance, //
                             mostChangesPerInstanceEver, //
-                            championChangesPerInstance //
+                            championChangesPerInstance, //
+                            Arrays.hashCode(deferrals()), //
+                            Arrays.hashCode(lastDeferrals), //
+                            Arrays.hashCode(iterations), //
+                            Arrays.hashCode(lastIterations), //
+                            mostIterationsEver, //
+                            orphanPasses, //
+                            lastOrphanPasses //
                            );
     }
 }
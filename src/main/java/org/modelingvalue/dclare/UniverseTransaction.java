@@ -15,13 +15,22 @@
 
 package org.modelingvalue.dclare;
 
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.Objects;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.WeakHashMap;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -32,6 +41,7 @@ import org.modelingvalue.collections.List;
 import org.modelingvalue.collections.Set;
 import org.modelingvalue.collections.util.Concurrent;
 import org.modelingvalue.collections.util.ContextThread.ContextPool;
+import org.modelingvalue.collections.util.Pair;
 import org.modelingvalue.collections.util.StatusProvider;
 import org.modelingvalue.collections.util.StatusProvider.AbstractStatus;
 import org.modelingvalue.collections.util.StatusProvider.StatusIterator;
@@ -65,7 +75,7 @@ public class UniverseTransaction extends MutableTransaction {
     private final Action<Universe>                                                                     checkConsistency        = Action.of("$checkConsistency", this::checkConsistency);
     private final Action<Universe>                                                                     deriveLazy              = Action.of("$deriveLazy", this::deriveLazy);
     //
-    protected final BlockingQueue<Action<Universe>>                                                    inQueue;
+    protected final LaneQueue<Action<Universe>>                                                        inQueue;
     private final BlockingQueue<State>                                                                 resultQueue             = new LinkedBlockingQueue<>(1);                          //TODO wire onto MoodManager
     private final State                                                                                emptyState              = createState(StateMap.EMPTY_STATE_MAP);
     private final State                                                                                startState;
@@ -74,12 +84,22 @@ public class UniverseTransaction extends MutableTransaction {
     protected final IdentityDerivation                                                                 identityDerivation      = new IdentityDerivation(this, Priority.one);
     protected final LazyDerivation                                                                     lazyDerivation          = new LazyDerivation(this, Priority.one);
     private final UniverseStatistics                                                                   universeStatistics;
+    private final ActionProfiler                                                                       profiler;
+    private final TraceRing                                                                            traceRing;
+    private long                                                                                       traceRingStart;
+    private final UniverseMetrics                                                                      metrics                 = new UniverseMetrics(this);
     protected final AtomicReference<Set<Throwable>>                                                    errors                  = new AtomicReference<>(Set.of());
     private final AtomicReference<Set<Throwable>>                                                      inconsistencies         = new AtomicReference<>(Set.of());
     private final AtomicReference<Boolean>                                                             orphansDetected         = new AtomicReference<>(null);
     private final ConstantState                                                                        constantState           = new ConstantState("CONST", this::handleException);
     private final StatusProvider<Status>                                                               statusProvider;
-    private final Timer                                                                                timer                   = new Timer("UniverseTransactionTimer", true);
+    private final Timer                                                                                timer;
+    private final ContextPool                                                                          dispatcher;
+    private final ReadyQueue                                                                           readyQueue;
+    private final AtomicBoolean                                                                        dispatched              = new AtomicBoolean();
+    private final java.util.Map<ImperativeTransaction, Boolean>                                        imperativesInSync       = new ConcurrentHashMap<>();
+    private final java.util.Map<ImperativeTransaction, State>                                          imperativesCommitted    = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<MutableClass, Observed<Universe, Set<Mutable>>>                    extents                 = new ConcurrentHashMap<>();
     private final MutableStates                                                                        preStartStates;
     private final MutableStates                                                                        startStates;
     private final List<IState>                                                                         states;
@@ -87,6 +107,7 @@ public class UniverseTransaction extends MutableTransaction {
     private List<Action<Universe>>                                                                     timeTravelingActions    = List.of(backward, forward);
     private List<Action<Universe>>                                                                     preActions              = List.of();
     private List<Action<Universe>>                                                                     postActions             = List.of();
+    private List<StateDeltaHandler>                                                                    timeTravelHandlers      = List.of();
     private List<ImperativeTransaction>                                                                imperativeTransactions  = List.of();
     private List<State>                                                                                history                 = List.of();
     private List<State>                                                                                future                  = List.of();
@@ -101,6 +122,7 @@ public class UniverseTransaction extends MutableTransaction {
     private boolean                                                                                    handling;                                                                        //TODO wire onto MoodManager
     private boolean                                                                                    stopped;                                                                         //TODO wire onto MoodManager
     private long                                                                                       transactionNumber;
+    private TimerTask                                                                                  timerTask;
 
     public class Status extends AbstractStatus {
         public final Mood               mood;
@@ -166,14 +188,17 @@ public class UniverseTransaction extends MutableTransaction {
         if (universe == null) {
             throw new IllegalArgumentException("UniverseTransaction can not start without a Universe (universe argument is null)");
         }
+        this.config = Objects.requireNonNull(config);
+        start(universe, null);
         State initState = createStartState(universe, startStateMap);
         startState = initState.get(() -> incrementChangeId(universe, initState));
         Status startStatus = new Status(Mood.starting, null, startState, null, Set.of());
         statusProvider = new StatusProvider<>(this, startStatus);
-        this.config = Objects.requireNonNull(config);
-        inQueue = new LinkedBlockingQueue<>(config.getMaxInInQueue());
+        inQueue = new LaneQueue<>(config.getMaxInInQueue(), config.getLaneStarvationLimit(), Lane.interactive);
+        timer = config.getMainLoopQuantum() > 0 ? SharedTimer.TIMER : new Timer("UniverseTransactionTimer", true);
         universeStatistics = new UniverseStatistics(this);
-        start(universe, null);
+        profiler = config.isProfiling() ? new ActionProfiler() : null;
+        traceRing = config.getTraceRingSize() > 0 ? new TraceRing(config.getTraceRingSize()) : null;
         preState = startState;
         preStartStates = new MutableStates(Priority.two, () -> createMutableState(emptyState));
         startStates = new MutableStates(Priority.two, () -> createMutableState(emptyState));
@@ -184,7 +209,16 @@ public class UniverseTransaction extends MutableTransaction {
             states = states.add(startState(p));
         }
         this.states = states;
-        pool.execute(this::mainLoop);
+        if (config.getMainLoopQuantum() > 0) {
+            dispatcher = pool;
+            readyQueue = ReadyQueue.of(pool);
+            beginLoop();
+            setIdleMood(state);
+        } else {
+            dispatcher = null;
+            readyQueue = null;
+            pool.execute(this::mainLoop);
+        }
         init();
         if (startStatusConsumer != null) {
             startStatusConsumer.accept(startStatus);
@@ -196,7 +230,7 @@ public class UniverseTransaction extends MutableTransaction {
             // take care that the startStateMap does not contain the STOPPED state
             stateMap = stateMap.clear(universe, STOPPED);
         }
-        return stateMap == null || stateMap.isEmpty() ? emptyState : createState(stateMap);
+        return stateMap == null || stateMap.isEmpty() ? emptyState : createState(stateMap).reindex();
     }
 
     protected State createState(StateMap stateMap) {
@@ -208,16 +242,7 @@ public class UniverseTransaction extends MutableTransaction {
     }
 
     protected void mainLoop() {
-        state = startState;
-        if (config.isTraceUniverse()) {
-            System.err.println(DclareTrace.getLineStart("DCLARE", this) + "START UNIVERSE " + this);
-        }
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                UniverseTransaction.this.timerTask();
-            }
-        }, 0, 300);
+        beginLoop();
         while (!killed) {
             try {
                 handling = false; //TODO wire onto MoodManager
@@ -225,65 +250,183 @@ public class UniverseTransaction extends MutableTransaction {
                 //==========================================================================
                 Action<Universe> action = take();
                 //==========================================================================
-                setBusyMood(action);
-                preState = state;
-                universeStatistics.setDebugging(false);
-                handling = true; //TODO wire onto MoodManager
-                if (config.isTraceUniverse()) {
-                    System.err.println(DclareTrace.getLineStart("DCLARE", this) + "BEGIN TRANSACTION " + this);
-                }
-                TraceTimer.traceBegin("root");
-                try {
-                    timeTraveling = timeTravelingActions.contains(action);
-                    start(action);
-                    if (action == backward) {
-                        if (history.size() > 3) {
-                            future = future.prepend(state);
-                            state = history.last();
-                            history = history.removeLast();
-                        }
-                    } else if (action == forward) {
-                        if (!future.isEmpty()) {
-                            history = history.append(state);
-                            state = future.first();
-                            future = future.removeFirst();
-                        }
-                    } else if (action != commit) {
-                        history = history.append(state);
-                        future = List.of();
-                        if (history.size() > universeStatistics.maxNrOfHistory()) {
-                            history = history.removeFirst();
-                        }
-                        runActions(preActions);
-                        runAction(action);
-                        if (initialized) {
-                            runAction(checkConsistency);
-                        }
-                        handleTooManyChanges(state);
-                        runActions(postActions);
-                    }
-                    commit(state, timeTraveling, imperativeTransactions.iterator());
-                    if (!killed && inQueue.isEmpty() && isStopped(state)) {
-                        break;
-                    }
-                } catch (Throwable t) {
-                    handleException(t);
-                } finally {
-                    if (config.isTraceUniverse()) {
-                        System.err.println(DclareTrace.getLineStart("DCLARE", this) + "END TRANSACTION " + this);
-                    }
-                    end(action);
-                    universeStatistics.completeRun();
-                    TraceTimer.traceEnd("root");
+                if (cycle(action)) {
+                    break;
                 }
             } catch (Throwable t) {
                 handleException(t);
             }
         }
+        endLoop();
+    }
+
+    /**
+     * The event driven alternative of {@link #mainLoop()}, used when {@link DclareConfig#getMainLoopQuantum()} is positive.
+     * It is executed on the pool when actions are put in an idle universe and runs at most the quantum of cycles. Then it
+     * gives its worker back and, if there is more to do, queues itself again behind the other universes of the pool that
+     * have work, see {@link ReadyQueue}. An idle universe therefore holds no pool worker; its timer task and its constant
+     * removal are served by one timer thread and one remover thread that all universes share.
+     */
+    private void dispatch() {
+        int quantum = config.getMainLoopQuantum();
+        boolean ended = false;
+        for (int i = 0; i < quantum && !ended && !killed; i++) {
+            Action<Universe> action = inQueue.poll();
+            if (action == null) {
+                break;
+            }
+            try {
+                ended = cycle(action);
+            } catch (Throwable t) {
+                handleException(t);
+            }
+            if (!ended) {
+                handling = false; //TODO wire onto MoodManager
+                setIdleMood(state);
+            }
+        }
+        if (ended || killed) {
+            endLoop();
+        } else {
+            dispatched.set(false);
+            if (!inQueue.isEmpty()) {
+                scheduleDispatch();
+            }
+        }
+    }
+
+    /**
+     * Holds the timer that all event driven universes share, so that the timer thread is only started when the first of
+     * them is.
+     */
+    private static final class SharedTimer {
+        private static final Timer TIMER = new Timer("UniverseTransactionTimer", true);
+    }
+
+    /**
+     * The event driven universes of one pool that have work, in the order they got it. A worker task executed from a worker
+     * of the pool is taken again by that same worker first, so a universe that executed its own dispatch would keep its
+     * worker until it is idle. Instead every queued universe executes one task that dispatches the universe at the head of
+     * this queue, which makes the pool serve its universes round robin, whatever order its workers take the tasks in.
+     */
+    private static final class ReadyQueue {
+        private static final java.util.Map<ContextPool, ReadyQueue> QUEUES    = Collections.synchronizedMap(new WeakHashMap<>());
+
+        private final ConcurrentLinkedQueue<UniverseTransaction>     universes = new ConcurrentLinkedQueue<>();
+
+        private static ReadyQueue of(ContextPool pool) {
+            return QUEUES.computeIfAbsent(pool, p -> new ReadyQueue());
+        }
+
+        private void dispatchHead() {
+            UniverseTransaction universe = universes.poll();
+            if (universe != null) {
+                universe.dispatch();
+            }
+        }
+    }
+
+    private void scheduleDispatch() {
+        if (dispatcher != null && dispatched.compareAndSet(false, true)) {
+            readyQueue.universes.add(this);
+            dispatcher.execute(readyQueue::dispatchHead);
+        }
+    }
+
+    private void beginLoop() {
+        state = startState;
         if (config.isTraceUniverse()) {
-            System.err.println(DclareTrace.getLineStart("DCLARE", this) + "STOP UNIVERSE " + this);
+            trace("DCLARE", "START UNIVERSE " + this);
+        }
+        timerTask = new TimerTask() {
+            @Override
+            public void run() {
+                UniverseTransaction.this.timerTask();
+            }
+        };
+        timer.schedule(timerTask, 0, 300);
+    }
+
+    /**
+     * @return true if the universe is stopped by this cycle
+     */
+    private boolean cycle(Action<Universe> action) {
+        setBusyMood(action);
+        preState = state;
+        universeStatistics.setDebugging(false);
+        traceRingStart = traceRing != null ? traceRing.count() : 0;
+        handling = true; //TODO wire onto MoodManager
+        if (config.isTraceUniverse()) {
+            trace("DCLARE", "BEGIN TRANSACTION " + this);
+        }
+        DclareEvents.Cycle cycleEvent = new DclareEvents.Cycle();
+        cycleEvent.begin();
+        TraceTimer.traceBegin("root");
+        try {
+            timeTraveling = timeTravelingActions.contains(action);
+            start(action);
+            if (action == backward) {
+                if (history.size() > 3) {
+                    future = future.prepend(state);
+                    state = history.last();
+                    history = history.removeLast();
+                }
+            } else if (action == forward) {
+                if (!future.isEmpty()) {
+                    history = history.append(state);
+                    state = future.first();
+                    future = future.removeFirst();
+                }
+            } else if (action != commit) {
+                history = history.append(state);
+                future = List.of();
+                if (history.size() > universeStatistics.maxNrOfHistory()) {
+                    history = history.removeFirst();
+                }
+                runActions(preActions);
+                runAction(action);
+                if (initialized) {
+                    runAction(checkConsistency);
+                }
+                handleTooManyChanges(state);
+                runActions(postActions);
+            }
+            if (timeTraveling && state != preState) {
+                for (StateDeltaHandler handler : timeTravelHandlers) {
+                    handler.handleDelta(preState, state, true, ImperativeTransaction.SETTED_MAP);
+                }
+            }
+            if (config.isParallelCommit()) {
+                commitParallel(state, timeTraveling);
+            } else {
+                commit(state, timeTraveling, imperativeTransactions.iterator());
+            }
+            if (!killed && inQueue.isEmpty() && isStopped(state) && (!config.isParallelCommit() || isImperativesInSync())) {
+                return true;
+            }
+        } catch (Throwable t) {
+            handleException(t);
+        } finally {
+            if (config.isTraceUniverse()) {
+                trace("DCLARE", "END TRANSACTION " + this);
+            }
+            end(action);
+            cycleEvent.end(this, action);
+            universeStatistics.completeRun();
+            metrics.cycle();
+            TraceTimer.traceEnd("root");
+        }
+        return false;
+    }
+
+    private void endLoop() {
+        if (config.isTraceUniverse()) {
+            trace("DCLARE", "STOP UNIVERSE " + this);
+        }
+        timerTask.cancel();
+        if (config.getMainLoopQuantum() <= 0) {
+            timer.cancel();
         }
-        timer.cancel();
         state.run(() -> UniverseTransaction.this.universe().exit());
         stop();
         history = history.append(state);
@@ -383,6 +526,7 @@ public class UniverseTransaction extends MutableTransaction {
     }
 
     protected void timerTask() {
+        metrics.sample();
         statusProvider.setNext(p -> {
             if (p.mood == Mood.busy) {
                 UniverseStatistics stats = new UniverseStatistics(stats());
@@ -396,7 +540,8 @@ public class UniverseTransaction extends MutableTransaction {
 
     @Override
     protected State run(State state) {
-        Priority priority = Priority.OUTER;
+        Priority priority  = Priority.OUTER;
+        int      iteration = 0;
         try {
             preStartState(Priority.OUTER).setState(state);
             state = incrementChangeId(universe(), state);
@@ -404,6 +549,10 @@ public class UniverseTransaction extends MutableTransaction {
                 preStartState(Priority.ALL[i]).setState(state);
             }
             do {
+                DclareEvents.PriorityIteration iterationEvent = new DclareEvents.PriorityIteration();
+                Priority                       running        = priority;
+                iterationEvent.begin();
+                universeStatistics.bumpIterations(running);
                 if (priority == Priority.OUTER) {
                     tmpConstants = new ConstantState("TEMP", this::handleException);
                     preOrphansState = state;
@@ -440,6 +589,7 @@ public class UniverseTransaction extends MutableTransaction {
                     tmpConstants.stop();
                     tmpConstants = null;
                 }
+                iterationEvent.end(this, running, iteration++);
             } while (priority != null);
             return state;
         } finally {
@@ -461,7 +611,7 @@ public class UniverseTransaction extends MutableTransaction {
             boolean result = hasQueued(state, universe(), priority);
             if (result) {
                 if (config.isTraceUniverse()) {
-                    System.err.println(DclareTrace.getLineStart("DCLARE", this) + priority.name().toUpperCase() + " " + this);
+                    trace("DCLARE", priority.name().toUpperCase() + " " + this);
                 }
                 return priority;
             }
@@ -473,6 +623,10 @@ public class UniverseTransaction extends MutableTransaction {
         return inQueue.size();
     }
 
+    public int numInQueue(Lane lane) {
+        return inQueue.size(lane);
+    }
+
     public boolean isHandling() { //TODO wire onto MoodManager
         return handling;
     }
@@ -500,10 +654,12 @@ public class UniverseTransaction extends MutableTransaction {
 
     protected void handleExceptions(Set<Throwable> exceptions) {
         errors.updateAndGet(exceptions::addAll);
+        metrics.errors(exceptions.size());
         if (config.isTraceUniverse()) {
-            List<Throwable> list = errors.get().sorted(this::compareThrowable).asList();
-            System.err.println(DclareTrace.getLineStart("DCLARE", this) + list.size() + " EXCEPTION(S) " + this);
-            list.first().printStackTrace();
+            List<Throwable> list       = errors.get().sorted(this::compareThrowable).asList();
+            StringWriter    stackTrace = new StringWriter();
+            list.first().printStackTrace(new PrintWriter(stackTrace));
+            trace("DCLARE", list.size() + " EXCEPTION(S) " + this + System.lineSeparator() + stackTrace);
         }
         kill();
     }
@@ -535,7 +691,7 @@ public class UniverseTransaction extends MutableTransaction {
     }
 
     protected void init() {
-        put(init);
+        putBehind(init);
     }
 
     @SuppressWarnings({"unchecked", "rawtypes"})
@@ -581,6 +737,13 @@ public class UniverseTransaction extends MutableTransaction {
     @SuppressWarnings({"rawtypes", "unchecked", "RedundantSuppression"})
     private void handleTooManyChanges(State state) {
         if (!killed && stats().debugging() && !errors.get().anyMatch(e -> e instanceof TooManyChangesException)) {
+            if (traceRing != null) {
+                ObserverTrace trace = traceRing.traces().stream().filter(t -> t.seq() >= traceRingStart).max(Comparator.comparingInt(t -> t.done().size())).orElse(null);
+                if (trace != null) {
+                    throw new TooManyChangesException(state, trace, trace.done().size());
+                }
+                return;
+            }
             ObserverTrace trace = state//
                     .filter(o -> o instanceof Mutable, s -> s instanceof Observer.Traces) //
                     .flatMap(e1 -> e1.getValue().map(e2 -> ((Set<ObserverTrace>) e2.getValue()).sorted().findFirst().orElseThrow())) //
@@ -611,6 +774,7 @@ public class UniverseTransaction extends MutableTransaction {
             return o instanceof Mutable && ((Mutable) o).dIsOrphan(postState) && !tx.toBeCleared((Mutable) o).isEmpty();
         }).map(e -> (Mutable) e.getKey()).asSet();
         orphansDetected.set(!orphans.isEmpty());
+        universeStatistics.bumpOrphanPasses();
         orphans.forEach(tx::clearOrphan);
     }
 
@@ -623,12 +787,58 @@ public class UniverseTransaction extends MutableTransaction {
     }
 
     public void put(Action<Universe> action) {
+        put(Lane.interactive, action);
+    }
+
+    public void put(Lane lane, Object id, Runnable action) {
+        put(lane, Action.of(id, o -> action.run()));
+    }
+
+    public LaneQueue.Ticket<Action<Universe>> put(Lane lane, Action<Universe> action) {
+        return put(lane, null, action, (o, n) -> n);
+    }
+
+    /**
+     * Puts the action in the given lane, replacing the action that was put with the same supersession key and has not
+     * started yet, if any.
+     *
+     * @return the ticket with which the action can be cancelled as long as it has not started, or null if this universe
+     *         is killed
+     */
+    public LaneQueue.Ticket<Action<Universe>> put(Lane lane, Object key, Action<Universe> action) {
+        return put(lane, key, action, (o, n) -> n);
+    }
+
+    /**
+     * Like {@link #put(Lane, Object, Action)}, but an action that is still queued under the same key is replaced by the
+     * result of the supersede function applied to the queued and the new action.
+     */
+    public LaneQueue.Ticket<Action<Universe>> put(Lane lane, Object key, Action<Universe> action, BinaryOperator<Action<Universe>> supersede) {
         if (!killed) {
+            LaneQueue.Ticket<Action<Universe>> ticket;
             try {
-                inQueue.put(action);
+                ticket = inQueue.put(lane, key, action, supersede);
             } catch (InterruptedException e) {
                 throw new Error(e);
             }
+            scheduleDispatch();
+            return ticket;
+        }
+        return null;
+    }
+
+    /**
+     * Puts a marker action, like stop or commit, behind all actions that are queued now, in whatever lane, so that it does
+     * not overtake them.
+     */
+    private void putBehind(Action<Universe> action) {
+        if (!killed) {
+            try {
+                inQueue.putBehind(action);
+            } catch (InterruptedException e) {
+                throw new Error(e);
+            }
+            scheduleDispatch();
         }
     }
 
@@ -680,6 +890,17 @@ public class UniverseTransaction extends MutableTransaction {
         return action;
     }
 
+    /**
+     * The diff handlers of {@link #addDiffHandler(String, StateDeltaHandler)} run as post actions, which do not run for
+     * {@link #backward()} and {@link #forward()}. The handlers added here are called with the states before and after every
+     * step back or forward in time.
+     */
+    public void addTimeTravelHandler(StateDeltaHandler handler) {
+        synchronized (this) {
+            timeTravelHandlers = timeTravelHandlers.add(handler);
+        }
+    }
+
     public void addPostAction(Action<Universe> action) {
         synchronized (this) {
             postActions = postActions.add(action);
@@ -718,8 +939,60 @@ public class UniverseTransaction extends MutableTransaction {
         }
     }
 
+    /**
+     * Commits the state to all imperative transactions at once, each on its own scheduler, so a slow consumer does not
+     * delay the others. Unlike {@link #commit(State, boolean, Iterator)}, which hands the next imperative the state of the
+     * previous one, every imperative gets this same state. That is the state the sequential commit hands on as long as the
+     * imperatives are insync; an imperative that is not insync keeps its own changes on top of it and puts them, which
+     * starts the next cycle, where the sequential commit would not have committed to the imperatives after it.
+     * <p>
+     * The insync results are collected as they come in, see {@link #isImperativesInSync()}. Imperatives that already got
+     * this state are not committed to again. A stopped universe only ends when all imperatives reported to be insync. When
+     * the last of them does, a commit is put to start the cycle that ends it.
+     */
+    private void commitParallel(State state, boolean timeTraveling) {
+        for (ImperativeTransaction itx : imperativeTransactions) {
+            if (killed) {
+                return;
+            }
+            synchronized (imperativesInSync) {
+                if (imperativesCommitted.put(itx, state) == state) {
+                    continue;
+                }
+                imperativesInSync.put(itx, false);
+            }
+            itx.scheduleCommit(state, timeTraveling, insync -> reportInSync(itx, state, insync));
+        }
+    }
+
+    private void reportInSync(ImperativeTransaction itx, State state, boolean insync) {
+        synchronized (imperativesInSync) {
+            if (imperativesCommitted.get(itx) != state) {
+                return;
+            }
+            imperativesInSync.put(itx, insync);
+        }
+        if (insync && isStopped(state) && isImperativesInSync()) {
+            putBehind(commit);
+        }
+    }
+
+    /**
+     * @return true if all imperative transactions reported to be insync with the last state committed to them
+     */
+    public boolean isImperativesInSync() {
+        synchronized (imperativesInSync) {
+            for (ImperativeTransaction itx : imperativeTransactions) {
+                if (!imperativesInSync.getOrDefault(itx, true)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     public void deriveLazy() {
-        put(deriveLazy);
+        put(Lane.maintenance, deriveLazy);
 
     }
 
@@ -731,20 +1004,20 @@ public class UniverseTransaction extends MutableTransaction {
     }
 
     public void commit() {
-        put(commit);
+        putBehind(commit);
     }
 
     public void backward() {
-        put(backward);
+        putBehind(backward);
     }
 
     @Override
     public void stop() {
-        put(stop);
+        putBehind(stop);
     }
 
     public void forward() {
-        put(forward);
+        putBehind(forward);
     }
 
     public State preState() {
@@ -759,6 +1032,28 @@ public class UniverseTransaction extends MutableTransaction {
         return state;
     }
 
+    /**
+     * The extent of a class is kept on the {@link Universe}, in one plumbing {@link Observed} per class. If the universe is
+     * configured with {@link DclareConfig#withExtentIndex(boolean)}, mutables are added in {@link Mutable#dActivate()} and
+     * removed in {@link Mutable#dDeactivate(LeafTransaction)}, which is called when an orphan is cleared. Every activation
+     * and deactivation then writes the extent on the universe, so it is off by default.
+     *
+     * @return the observed extent of the given class
+     */
+    public Observed<Universe, Set<Mutable>> extent(MutableClass cls) {
+        if (!config.isExtentIndex()) {
+            throw new IllegalStateException("The extent of " + cls + " is not kept, the universe is not configured with an extent index");
+        }
+        return extents.computeIfAbsent(cls, c -> Observed.of(Pair.of(c, "D_EXTENT"), Set.of(), CoreSetableModifier.plumbing, CoreSetableModifier.doNotClear));
+    }
+
+    /**
+     * @return a {@link StateReader} on the last state published by this universe, which can be used from any thread
+     */
+    public StateReader reader() {
+        return StateReader.of(getStatus().state);
+    }
+
     public MutableState preStartState(Priority priority) {
         return preStartStates.get(priority);
     }
@@ -798,12 +1093,34 @@ public class UniverseTransaction extends MutableTransaction {
         } catch (InterruptedException e) {
             throw new Error(e);
         }
+        scheduleDispatch();
     }
 
     public UniverseStatistics stats() {
         return universeStatistics;
     }
 
+    /**
+     * @return the profiler of all actions and observers, or null if this universe is not configured with {@link DclareConfig#withProfiling(boolean)}
+     */
+    public ActionProfiler profiler() {
+        return profiler;
+    }
+
+    /**
+     * @return the ring in which observer traces are recorded outside the state, or null if this universe is not configured with {@link DclareConfig#withTraceRingSize(int)}
+     */
+    public TraceRing traceRing() {
+        return traceRing;
+    }
+
+    /**
+     * @return the lock-free health metrics of this universe, see {@link UniverseMetrics#registerMBean()} and {@link UniverseMetrics#bindTo(MetricsRegistry)}
+     */
+    public UniverseMetrics metrics() {
+        return metrics;
+    }
+
     public void start(Action<Universe> action) {
     }
 
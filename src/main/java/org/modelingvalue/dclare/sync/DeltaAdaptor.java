@@ -29,6 +29,7 @@ import org.modelingvalue.collections.Map;
 import org.modelingvalue.collections.Set;
 import org.modelingvalue.collections.util.Pair;
 import org.modelingvalue.dclare.ImperativeTransaction;
+import org.modelingvalue.dclare.Lane;
 import org.modelingvalue.dclare.Mutable;
 import org.modelingvalue.dclare.MutableClass;
 import org.modelingvalue.dclare.Setable;
@@ -52,6 +53,7 @@ public class DeltaAdaptor<C extends MutableClass, M extends Mutable, S extends S
         adaptorDaemon = new AdaptorDaemon("adaptor-" + name);
         adaptorDaemon.start();
         this.imperativeTransaction = tx.addImperative(name, this::queueDelta, adaptorDaemon, false);
+        this.imperativeTransaction.setLane(Lane.sync);
     }
 
     /**
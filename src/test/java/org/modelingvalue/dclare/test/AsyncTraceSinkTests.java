@@ -0,0 +1,98 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+// (C) Copyright 2018-2023 Modeling Value Group B.V. (http://modelingvalue.org)                                        ~
+//                                                                                                                     ~
+// Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in      ~
+// compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0  ~
+// Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on ~
+// an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the  ~
+// specific language governing permissions and limitations under the License.                                          ~
+//                                                                                                                     ~
+// Maintainers:                                                                                                        ~
+//     Wim Bast, Tom Brus, Ronald Krijgsheld                                                                           ~
+// Contributors:                                                                                                       ~
+//     Arjan Kok, Carel Bast                                                                                           ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.dclare.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+import org.modelingvalue.dclare.AsyncTraceSink;
+
+public class AsyncTraceSinkTests {
+    @Test
+    public void writesInOrder() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        AsyncTraceSink        sink  = AsyncTraceSink.of(new PrintStream(bytes, true, StandardCharsets.UTF_8), 128);
+        for (int i = 0; i < 1000; i++) {
+            sink.trace("TEST", null, "message-" + i);
+        }
+        sink.close();
+        String[] lines = lines(bytes);
+        assertEquals(1000 - sink.getNrOfDropped(), lines.length);
+        int last = -1;
+        for (String line : lines) {
+            int nr = Integer.parseInt(line.substring(line.indexOf("message-") + 8));
+            assertTrue(last < nr, line);
+            last = nr;
+        }
+    }
+
+    @Test
+    public void dropsWhenFull() throws InterruptedException {
+        CountDownLatch        release = new CountDownLatch(1);
+        ByteArrayOutputStream bytes   = new ByteArrayOutputStream();
+        OutputStream blocking = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new Error(e);
+                }
+                bytes.write(b);
+            }
+        };
+        AsyncTraceSink sink = AsyncTraceSink.of(new PrintStream(blocking, true, StandardCharsets.UTF_8), 8);
+        for (int i = 0; i < 20; i++) {
+            sink.trace("TEST", null, "message-" + i);
+        }
+        assertTrue(sink.getNrOfDropped() >= 12, "dropped " + sink.getNrOfDropped());
+        release.countDown();
+        sink.close();
+        assertEquals(20 - sink.getNrOfDropped(), lines(bytes).length);
+        assertTrue(lines(bytes)[0].endsWith("message-0"));
+    }
+
+    @Test
+    public void binaryFile() throws IOException {
+        Path           file = Files.createTempFile("dclare-trace", ".bin");
+        AsyncTraceSink sink = AsyncTraceSink.of(file, 64);
+        for (int i = 0; i < 10; i++) {
+            sink.trace("TEST", null, "message-" + i);
+        }
+        sink.close();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        AsyncTraceSink.print(file, new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        String[] lines = lines(bytes);
+        assertEquals(10, lines.length);
+        assertTrue(lines[0].startsWith("TEST"), lines[0]);
+        assertTrue(lines[9].endsWith("message-9"), lines[9]);
+    }
+
+    private static String[] lines(ByteArrayOutputStream bytes) {
+        String text = bytes.toString(StandardCharsets.UTF_8);
+        return text.isEmpty() ? new String[0] : text.split(System.lineSeparator());
+    }
+}
@@ -0,0 +1,134 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+// (C) Copyright 2018-2023 Modeling Value Group B.V. (http://modelingvalue.org)                                        ~
+//                                                                                                                     ~
+// Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in      ~
+// compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0  ~
+// Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on ~
+// an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the  ~
+// specific language governing permissions and limitations under the License.                                          ~
+//                                                                                                                     ~
+// Maintainers:                                                                                                        ~
+//     Wim Bast, Tom Brus, Ronald Krijgsheld                                                                           ~
+// Contributors:                                                                                                       ~
+//     Arjan Kok, Carel Bast                                                                                           ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.dclare.test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.modelingvalue.dclare.CoreSetableModifier.containment;
+import static org.modelingvalue.dclare.test.support.Shared.THE_POOL;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.modelingvalue.collections.List;
+import org.modelingvalue.collections.Set;
+import org.modelingvalue.dclare.ChangeLog;
+import org.modelingvalue.dclare.DclareConfig;
+import org.modelingvalue.dclare.Mutable;
+import org.modelingvalue.dclare.Observed;
+import org.modelingvalue.dclare.State;
+import org.modelingvalue.dclare.StateMap;
+import org.modelingvalue.dclare.UniverseTransaction;
+import org.modelingvalue.dclare.test.support.TestMutable;
+import org.modelingvalue.dclare.test.support.TestMutableClass;
+import org.modelingvalue.dclare.test.support.TestObserved;
+import org.modelingvalue.dclare.test.support.TestSerializationHelper;
+import org.modelingvalue.dclare.test.support.TestUniverse;
+
+@SuppressWarnings("unchecked")
+public class ChangeLogTests {
+    private static final Observed<TestMutable, Integer>          NUMBER   = TestObserved.of("#logNumber", (o, s, v) -> v, (o, s, v) -> ((Number) v).intValue(), 0);
+    private static final TestMutableClass                        OBJECT   = TestMutableClass.of("LogObject", NUMBER);
+    private static final Observed<TestMutable, Set<TestMutable>> CHILDREN = TestObserved.of("#logChildren", (o, s, v) -> v.map(TestMutable::serialize).asList(), (o, s, v) -> ((List<String>) v).map(id -> TestMutable.of(id, OBJECT)).asSet(), Set.of(), containment);
+    private static final TestUniverse                            UNIVERSE = TestUniverse.of("universe", TestMutableClass.of("LogUniverse", CHILDREN));
+    private static final TestMutable                             A        = TestMutable.of("a", OBJECT);
+    private static final TestMutable                             B        = TestMutable.of("b", OBJECT);
+
+    @Test
+    public void appendAndRecover() throws IOException {
+        Path  dir    = Files.createTempDirectory("dclare-log");
+        State result = run(dir, 0, null, 1, 2, 3);
+        assertEquals(3, (int) result.get(A, NUMBER));
+
+        StateMap recovered = ChangeLog.recover(dir, new TestSerializationHelper(UNIVERSE));
+        assertEquals(Set.of(A, B), recovered.get(UNIVERSE, CHILDREN));
+        assertEquals(3, (int) recovered.get(A, NUMBER));
+        assertEquals(UNIVERSE, recovered.getA(A, Mutable.D_PARENT_CONTAINING));
+        assertTrue(Files.notExists(dir.resolve(ChangeLog.SNAPSHOT_FILE_NAME)));
+    }
+
+    @Test
+    public void ignoreTornAndCorruptRecords() throws IOException {
+        Path dir = Files.createTempDirectory("dclare-log");
+        run(dir, 0, null, 1, 2);
+        Path   log   = dir.resolve(ChangeLog.LOG_FILE_NAME);
+        byte[] bytes = Files.readAllBytes(log);
+
+        Files.write(log, new byte[]{0, 0, 0, 100, 1, 2, 3, 4, 5}, StandardOpenOption.APPEND);
+        assertEquals(2, (int) ChangeLog.recover(dir, new TestSerializationHelper(UNIVERSE)).get(A, NUMBER));
+
+        bytes[bytes.length - 1] ^= 0x55;
+        Files.write(log, bytes);
+        assertEquals(1, (int) ChangeLog.recover(dir, new TestSerializationHelper(UNIVERSE)).get(A, NUMBER));
+    }
+
+    @Test
+    public void appendAfterTornRecord() throws IOException {
+        Path dir = Files.createTempDirectory("dclare-log");
+        run(dir, 0, null, 1, 2);
+        Files.write(dir.resolve(ChangeLog.LOG_FILE_NAME), new byte[]{0, 0, 0, 100, 1, 2, 3}, StandardOpenOption.APPEND);
+        run(dir, 0, ChangeLog.recover(dir, new TestSerializationHelper(UNIVERSE)), 5);
+        assertEquals(5, (int) ChangeLog.recover(dir, new TestSerializationHelper(UNIVERSE)).get(A, NUMBER));
+    }
+
+    @Test
+    public void compaction() throws IOException {
+        Path  dir    = Files.createTempDirectory("dclare-log");
+        State result = run(dir, 2, null, 1, 2, 3, 4, 5);
+        assertTrue(Files.exists(dir.resolve(ChangeLog.SNAPSHOT_FILE_NAME)));
+
+        StateMap recovered = ChangeLog.recover(dir, new TestSerializationHelper(UNIVERSE));
+        assertEquals(result.get(A, NUMBER), recovered.get(A, NUMBER));
+        assertEquals(Set.of(A, B), recovered.get(UNIVERSE, CHILDREN));
+    }
+
+    @Test
+    public void timeTravel() throws IOException {
+        Path                dir                 = Files.createTempDirectory("dclare-log");
+        UniverseTransaction universeTransaction = new UniverseTransaction(UNIVERSE, THE_POOL, new DclareConfig().withDevMode(true));
+        ChangeLog           changeLog           = new ChangeLog("test", universeTransaction, new TestSerializationHelper(UNIVERSE), dir, 0);
+        universeTransaction.put("children", () -> CHILDREN.set(UNIVERSE, Set.of(A, B)));
+        for (int i = 1; i <= 5; i++) {
+            int n = i;
+            universeTransaction.put("step" + i, () -> NUMBER.set(A, n));
+        }
+        universeTransaction.backward();
+        universeTransaction.backward();
+        universeTransaction.stop();
+        State result = assertDoesNotThrow(() -> UNIVERSE.waitForEnd(universeTransaction));
+        changeLog.close();
+
+        assertTrue(result.get(A, NUMBER) < 5);
+        assertEquals(result.get(A, NUMBER), ChangeLog.recover(dir, new TestSerializationHelper(UNIVERSE)).get(A, NUMBER));
+    }
+
+    private static State run(Path dir, int compactAfter, StateMap start, int... numbers) {
+        UniverseTransaction universeTransaction = new UniverseTransaction(UNIVERSE, THE_POOL, new DclareConfig().withDevMode(true), null, start);
+        ChangeLog           changeLog           = new ChangeLog("test", universeTransaction, new TestSerializationHelper(UNIVERSE), dir, compactAfter);
+        universeTransaction.put("children", () -> CHILDREN.set(UNIVERSE, Set.of(A, B)));
+        for (int n : numbers) {
+            universeTransaction.put("number" + n, () -> NUMBER.set(A, n));
+        }
+        universeTransaction.stop();
+        State result = assertDoesNotThrow(() -> UNIVERSE.waitForEnd(universeTransaction));
+        changeLog.close();
+        return result;
+    }
+}
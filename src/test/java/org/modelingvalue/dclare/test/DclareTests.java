@@ -19,27 +19,50 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
 import org.modelingvalue.collections.Collection;
+import org.modelingvalue.collections.DefaultMap;
 import org.modelingvalue.collections.List;
 import org.modelingvalue.collections.Set;
+import org.modelingvalue.collections.util.ContextThread;
+import org.modelingvalue.collections.util.ContextThread.ContextPool;
+import org.modelingvalue.collections.util.NotMergeableException;
+import org.modelingvalue.collections.util.StatusProvider.StatusIterator;
+import org.modelingvalue.dclare.Constant;
 import org.modelingvalue.dclare.DclareConfig;
+import org.modelingvalue.dclare.ImperativeTransaction;
+import org.modelingvalue.dclare.Mutable;
 import org.modelingvalue.dclare.Observed;
 import org.modelingvalue.dclare.Setable;
 import org.modelingvalue.dclare.State;
+import org.modelingvalue.dclare.StateMap;
+import org.modelingvalue.dclare.StateMergeHandler;
+import org.modelingvalue.dclare.StateReader;
+import org.modelingvalue.dclare.TransactionId;
 import org.modelingvalue.dclare.UniverseTransaction;
+import org.modelingvalue.dclare.UniverseTransaction.Status;
 import org.modelingvalue.dclare.ex.EmptyMandatoryException;
 import org.modelingvalue.dclare.ex.ReferencedOrphanException;
+import org.modelingvalue.dclare.ex.TooManyChangesException;
 import org.modelingvalue.dclare.test.support.Fibonacci;
 import org.modelingvalue.dclare.test.support.TestMutable;
 import org.modelingvalue.dclare.test.support.TestMutableClass;
+import org.modelingvalue.dclare.test.support.TestScheduler;
 import org.modelingvalue.dclare.test.support.TestUniverse;
 
 import java.math.BigInteger;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.modelingvalue.dclare.CoreSetableModifier.containment;
+import static org.modelingvalue.dclare.CoreSetableModifier.indexed;
 import static org.modelingvalue.dclare.CoreSetableModifier.mandatory;
 import static org.modelingvalue.dclare.test.support.Shared.THE_POOL;
 import static org.modelingvalue.dclare.test.support.Shared.printState;
@@ -199,6 +222,461 @@ public class DclareTests {
         assertEquals("u.c2.gc2.ggc3", result.get(ggc3, qualifiedName));
     }
 
+    @Test
+    public void ancestorIndex() {
+        Observed<TestMutable, Set<TestMutable>> children = Observed.of("children", Set.of(), containment);
+        Setable<TestMutable, List<Mutable>>     path     = Setable.of("path", List.of());
+        Setable<TestMutable, Boolean>           underB   = Setable.of("underB", false);
+        TestMutableClass clazz = TestMutableClass.of("Indexed", children).//
+                observe(o -> path.set(o, o.dAncestorPath())).//
+                observe(o -> underB.set(o, o.dHasAncestorInPath(TestMutable.of("b", (TestMutableClass) o.dClass()))));
+        TestMutable         a                   = TestMutable.of("a", clazz);
+        TestMutable         b                   = TestMutable.of("b", clazz);
+        TestMutable         c                   = TestMutable.of("c", clazz);
+        TestMutable         d                   = TestMutable.of("d", clazz);
+        TestUniverse        universe            = TestUniverse.of("universe", TestMutableClass.of("Universe", children));
+        UniverseTransaction universeTransaction = new UniverseTransaction(universe, THE_POOL, new DclareConfig().withDevMode(true).withAncestorIndex(true));
+        universeTransaction.put("step1", () -> {
+            children.set(universe, Set.of(a, b));
+            children.set(a, Set.of(c));
+            children.set(c, Set.of(d));
+        });
+        universeTransaction.put("step2", () -> {
+            children.set(a, Set::remove, c);
+            children.set(b, Set::add, c);
+        });
+        universeTransaction.stop();
+        State result = assertDoesNotThrow(() -> universe.waitForEnd(universeTransaction));
+
+        assertEquals(List.of(c, b, universe), result.get(d, path));
+        assertEquals(List.of(b, universe), result.get(c, path));
+        assertEquals(List.of(c, b, universe), result.get(d, Mutable.D_ANCESTORS).a());
+        assertEquals(Set.of(c, b, universe), result.get(d, Mutable.D_ANCESTORS).b());
+        assertTrue(result.get(d, underB));
+        assertTrue(result.get(c, underB));
+        assertFalse(result.get(a, underB));
+    }
+
+    @Test
+    public void changeIds() {
+        Observed<TestMutable, Set<TestMutable>> children = Observed.of("children", Set.of(), containment);
+        Observed<TestMutable, String>           name     = Observed.of("name", null);
+        TestMutableClass                        clazz    = TestMutableClass.of("Stamped", children, name);
+        TestMutable         a                   = TestMutable.of("a", clazz);
+        TestMutable         b                   = TestMutable.of("b", clazz);
+        TestMutable         c                   = TestMutable.of("c", clazz);
+        TestMutable         d                   = TestMutable.of("d", clazz);
+        TestUniverse        universe            = TestUniverse.of("universe", TestMutableClass.of("Universe", children));
+        UniverseTransaction universeTransaction = new UniverseTransaction(universe, THE_POOL, new DclareConfig().withDevMode(true));
+        State before = universeTransaction.putAndWaitForIdle("step1", () -> {
+            children.set(universe, Set.of(a, d));
+            children.set(a, Set.of(b));
+            children.set(b, Set.of(c));
+        });
+        State after = universeTransaction.putAndWaitForIdle("step2", () -> {
+            name.set(c, "c");
+            name.set(b, "b");
+            name.set(c, "cc");
+        });
+        universeTransaction.stop();
+        assertDoesNotThrow(() -> universe.waitForEnd(universeTransaction));
+
+        TransactionId stamp = after.get(c, Mutable.D_CHANGE_ID);
+        assertTrue(stamp.number() > before.transactionId().number());
+        assertEquals(stamp, after.get(b, Mutable.D_CHANGE_ID));
+        assertEquals(stamp, after.get(a, Mutable.D_CHANGE_ID));
+        assertEquals(before.get(d, Mutable.D_CHANGE_ID), after.get(d, Mutable.D_CHANGE_ID));
+        assertEquals(before.get(universe, Mutable.D_CHANGE_ID), after.get(universe, Mutable.D_CHANGE_ID));
+        TransactionId untouched = after.get(d, Mutable.D_CHANGE_ID);
+        assertTrue(untouched == null || untouched.number() <= before.transactionId().number());
+    }
+
+    @Test
+    public void stateReader() {
+        Observed<TestMutable, Set<TestMutable>> children = Observed.of("children", Set.of(), containment);
+        Observed<TestMutable, String>           name     = Observed.of("name", null);
+        Setable<TestMutable, Integer>           size     = Setable.of("size", 0);
+        Constant<TestMutable, String>           label    = Constant.of("label", m -> "L" + m.id());
+        TestMutableClass clazz = TestMutableClass.of("Read", children, name, size).//
+                observe(size, o -> children.get(o).size());
+        TestMutable         a                   = TestMutable.of("a", clazz);
+        TestMutable         b                   = TestMutable.of("b", clazz);
+        TestMutable         c                   = TestMutable.of("c", clazz);
+        TestUniverse        universe            = TestUniverse.of("universe", TestMutableClass.of("Universe", children));
+        UniverseTransaction universeTransaction = new UniverseTransaction(universe, THE_POOL, new DclareConfig().withDevMode(true));
+        universeTransaction.put("step1", () -> {
+            children.set(universe, Set.of(a));
+            children.set(a, Set.of(b, c));
+            name.set(b, "b");
+        });
+        universeTransaction.stop();
+        State result = assertDoesNotThrow(() -> universe.waitForEnd(universeTransaction));
+
+        StateReader reader = StateReader.of(result);
+        assertEquals(result, reader.state());
+        List<TestMutable> all = List.of(a, b, c);
+        for (TestMutable m : all) {
+            assertEquals(result.get(() -> children.get(m)), reader.get(m, children));
+            assertEquals(result.get(() -> name.get(m)), reader.get(m, name));
+            assertEquals(result.get(() -> size.get(m)), reader.get(m, size));
+            assertEquals(result.get(() -> label.get(m)), reader.get(m, label));
+            assertEquals(result.get(() -> children.get(m)).asList(), reader.getCollection(m, children).asList());
+            assertEquals(result.get(() -> m.dParent()), reader.parent(m));
+            assertEquals(result.get(() -> m.dContaining()), reader.containing(m));
+            for (TestMutable ancestor : all) {
+                assertEquals(result.get(() -> m.dHasAncestor(ancestor)), reader.hasAncestor(m, ancestor));
+            }
+            assertEquals(result.get(() -> m.dHasAncestor(universe)), reader.hasAncestor(m, universe));
+        }
+        assertEquals(2, (int) reader.get(a, size));
+        assertEquals("La", reader.get(a, label));
+        assertEquals(a, reader.parent(b));
+        assertEquals(children, reader.containing(b));
+        assertTrue(reader.hasAncestor(c, universe));
+        assertFalse(reader.hasAncestor(b, c));
+        assertTrue(IntStream.range(0, 1000).parallel().allMatch(i -> "b".equals(reader.get(b, name)) && reader.hasAncestor(c, a)));
+    }
+
+    @Test
+    public void index() {
+        Observed<TestUniverse, Set<TestMutable>> children = Observed.of("children", Set.of(), containment);
+        Observed<TestMutable, String>            group    = Observed.of("group", null);
+        Observed<TestMutable, String>            owner    = Observed.of("owner", null, indexed);
+        Observed<TestMutable, Integer>           nrOfG    = Observed.of("nrOfG", 0);
+        Observed<TestMutable, Integer>           nrOfH    = Observed.of("nrOfH", 0);
+        TestMutableClass                         clazz    = TestMutableClass.of("IndexedObject", group, owner).observe(owner, o -> group.get(o));
+        TestUniverse universe = TestUniverse.of("universe", TestMutableClass.of("Universe", children, nrOfG, nrOfH).//
+                observe(nrOfG, u -> owner.lookup("g").size()).//
+                observe(nrOfH, u -> owner.lookup("h").size()));
+        Set<TestMutable> all = Set.of();
+        for (int i = 0; i < 8; i++) {
+            all = all.add(TestMutable.of(i, clazz));
+        }
+        Set<TestMutable>    objects             = all;
+        TestMutable         first               = TestMutable.of(0, clazz);
+        UniverseTransaction universeTransaction = new UniverseTransaction(universe, THE_POOL, new DclareConfig().withDevMode(true));
+        State set = universeTransaction.putAndWaitForIdle("set", () -> {
+            children.set(universe, objects);
+            for (TestMutable o : objects) {
+                group.set(o, "g");
+            }
+        });
+        assertEquals(objects, set.lookup(owner, "g"));
+        assertEquals(8, (int) set.get(universe, nrOfG));
+        State changed = universeTransaction.putAndWaitForIdle("change", () -> group.set(first, "h"));
+        assertEquals(objects.remove(first), changed.lookup(owner, "g"));
+        assertEquals(Set.of(first), changed.lookup(owner, "h"));
+        assertEquals(7, (int) changed.get(universe, nrOfG));
+        assertEquals(1, (int) changed.get(universe, nrOfH));
+        State removed = universeTransaction.putAndWaitForIdle("remove", () -> children.set(universe, Set::remove, first));
+        assertEquals(Set.of(), removed.lookup(owner, "h"));
+        assertEquals(0, (int) removed.get(universe, nrOfH));
+        assertEquals(7, (int) removed.get(universe, nrOfG));
+        universeTransaction.stop();
+        State result = assertDoesNotThrow(() -> universe.waitForEnd(universeTransaction));
+        assertEquals(objects.remove(first), result.lookup(owner, "g"));
+
+        StateMap            withoutIndex = result.getStateMap().clear(universe, owner.index().of("g"));
+        UniverseTransaction restarted    = new UniverseTransaction(universe, THE_POOL, new DclareConfig().withDevMode(true), null, withoutIndex);
+        State reindexed = restarted.putAndWaitForIdle("read", () -> {
+        });
+        assertEquals(objects.remove(first), reindexed.lookup(owner, "g"));
+        assertEquals(7, (int) reindexed.get(universe, nrOfG));
+        restarted.stop();
+        assertDoesNotThrow(() -> universe.waitForEnd(restarted));
+    }
+
+    @Test
+    public void extent() {
+        Observed<TestMutable, Set<TestMutable>> children = Observed.of("children", Set.of(), containment);
+        Observed<TestMutable, Integer>          count    = Observed.of("count", 0);
+        TestMutableClass                        clazz    = TestMutableClass.of("Extended", children);
+        TestMutableClass                        uClass   = TestMutableClass.of("Universe", children, count).observe(count, u -> clazz.dExtent().size());
+        TestUniverse                            universe = TestUniverse.of("universe", uClass);
+        TestMutable         a                   = TestMutable.of("a", clazz);
+        TestMutable         b                   = TestMutable.of("b", clazz);
+        TestMutable         c                   = TestMutable.of("c", clazz);
+        DclareConfig        config              = new DclareConfig().withDevMode(true).withExtentIndex(true);
+        UniverseTransaction universeTransaction = new UniverseTransaction(universe, THE_POOL, config);
+        State activated = universeTransaction.putAndWaitForIdle("activate", () -> {
+            children.set(universe, Set.of(a, b));
+            children.set(a, Set.of(c));
+        });
+        assertEquals(Set.of(a, b, c), activated.extent(clazz));
+        assertEquals(3, (int) activated.get(universe, count));
+        State orphaned = universeTransaction.putAndWaitForIdle("orphan", () -> children.set(universe, Set::remove, a));
+        assertEquals(Set.of(b), orphaned.extent(clazz));
+        assertEquals(1, (int) orphaned.get(universe, count));
+        State reactivated = universeTransaction.putAndWaitForIdle("reactivate", () -> children.set(universe, Set::add, a));
+        assertEquals(Set.of(a, b), reactivated.extent(clazz));
+        assertEquals(2, (int) reactivated.get(universe, count));
+        assertTrue(universeTransaction.extent(clazz) == universeTransaction.extent(clazz));
+        assertEquals(Set.of(universe), reactivated.extent(uClass));
+        universeTransaction.stop();
+        State result = assertDoesNotThrow(() -> universe.waitForEnd(universeTransaction));
+
+        UniverseTransaction restarted = new UniverseTransaction(universe, THE_POOL, config, null, result.getStateMap());
+        assertEquals(Set.of(a, b), restarted.startState().extent(clazz));
+        assertEquals(Set.of(universe), restarted.startState().extent(uClass));
+        restarted.stop();
+        assertDoesNotThrow(() -> universe.waitForEnd(restarted));
+
+        UniverseTransaction plain = new UniverseTransaction(universe, THE_POOL, new DclareConfig().withDevMode(true));
+        assertThrows(IllegalStateException.class, () -> plain.extent(clazz));
+        plain.stop();
+        assertDoesNotThrow(() -> universe.waitForEnd(plain));
+    }
+
+    @Test
+    public void mergeParallel() {
+        Observed<TestUniverse, Set<TestMutable>> children = Observed.of("children", Set.of(), containment);
+        Observed<TestMutable, String>            name     = Observed.of("name", null);
+        Observed<TestMutable, String>            shared   = Observed.of("shared", null);
+        TestMutableClass                         clazz    = TestMutableClass.of("Merged", name, shared);
+        TestUniverse                             universe = TestUniverse.of("universe", TestMutableClass.of("Universe", children));
+        UniverseTransaction universeTransaction = new UniverseTransaction(universe, THE_POOL, new DclareConfig().withDevMode(true));
+        universeTransaction.put("init", () -> {
+            for (int i = 0; i < 4; i++) {
+                children.set(universe, Set::add, TestMutable.of(i, clazz));
+            }
+        });
+        universeTransaction.stop();
+        State base = assertDoesNotThrow(() -> universe.waitForEnd(universeTransaction));
+
+        State[] branches = new State[4];
+        for (int i = 0; i < branches.length; i++) {
+            TestMutable object = TestMutable.of(i, clazz);
+            branches[i] = base.set(universe, children, Set::add, TestMutable.of(10 + i, clazz)).//
+                    set(object, name, "n" + i).//
+                    set(TestMutable.of(0, clazz), shared, "s");
+        }
+        RecordingMergeHandler serialHandler = new RecordingMergeHandler();
+        RecordingMergeHandler parallelHandler = new RecordingMergeHandler();
+        State serial = base.merge(serialHandler, branches, branches.length);
+        State parallel = base.mergeParallel(parallelHandler, branches, branches.length);
+        assertTrue(serial.diff(parallel, o -> true, s -> true).isEmpty());
+        assertEquals(8, serial.get(universe, children).size());
+        assertEquals(serialHandler.changes, parallelHandler.changes);
+        assertFalse(serialHandler.changes.isEmpty());
+
+        TestMutable a = TestMutable.of(0, clazz);
+        State[] conflicting = new State[]{base.set(a, name, "x"), base.set(a, name, "y"), base.set(TestMutable.of(1, clazz), name, "z")};
+        assertThrows(NotMergeableException.class, () -> base.merge(serialHandler, conflicting, conflicting.length));
+        assertThrows(NotMergeableException.class, () -> base.mergeParallel(parallelHandler, conflicting, conflicting.length));
+        assertEquals(java.util.Set.of(a + "." + name), serialHandler.conflicts);
+        assertEquals(serialHandler.conflicts, parallelHandler.conflicts);
+    }
+
+    private static final class RecordingMergeHandler implements StateMergeHandler {
+        private final java.util.Map<String, Integer> changes   = new ConcurrentHashMap<>();
+        private final java.util.Set<String>          conflicts = ConcurrentHashMap.newKeySet();
+
+        @SuppressWarnings("rawtypes")
+        @Override
+        public void handleChange(Object object, Setable setable, DefaultMap<Setable, Object> baseValues, DefaultMap<Setable, Object>[] branchesValues, DefaultMap<Setable, Object> resultValues, State base) {
+            changes.merge(object + "." + setable, 1, Integer::sum);
+        }
+
+        @SuppressWarnings("rawtypes")
+        @Override
+        public void handleMergeConflict(Object object, Setable property, Object pre, Object... branches) {
+            conflicts.add(object + "." + property);
+            throw new NotMergeableException(object + "." + property);
+        }
+    }
+
+    @Test
+    public void growingBranches() {
+        Observed<TestUniverse, Set<TestMutable>> children = Observed.of("children", Set.of(), containment);
+        Observed<TestMutable, Integer>           source   = Observed.of("source", 0);
+        Setable<TestMutable, Integer>            target   = Setable.of("target", 0);
+        TestMutableClass                         clazz    = TestMutableClass.of("Branched", source, target).observe(o -> target.set(o, source.get(o) * 2));
+        TestUniverse                             universe = TestUniverse.of("universe", TestMutableClass.of("Universe", children));
+        UniverseTransaction universeTransaction = new UniverseTransaction(universe, THE_POOL, new DclareConfig().withDevMode(true));
+        int[] sizes = new int[]{3, 8, 64, 5, 200};
+        int nr = 0;
+        for (int size : sizes) {
+            int from = nr;
+            nr += size;
+            int to = nr;
+            universeTransaction.put("add" + to, () -> {
+                for (int i = from; i < to; i++) {
+                    TestMutable object = TestMutable.of(i, clazz);
+                    children.set(universe, Set::add, object);
+                    source.set(object, i);
+                }
+            });
+        }
+        int total = nr;
+        universeTransaction.put("change", () -> {
+            for (int i = 0; i < total; i++) {
+                source.set(TestMutable.of(i, clazz), i + 1);
+            }
+        });
+        universeTransaction.stop();
+        State result = assertDoesNotThrow(() -> universe.waitForEnd(universeTransaction));
+
+        assertEquals(total, result.get(universe, children).size());
+        for (int i = 0; i < total; i++) {
+            assertEquals((i + 1) * 2, (int) result.get(TestMutable.of(i, clazz), target));
+        }
+    }
+
+    @Test
+    public void dispatchOnSharedPool() {
+        ConcurrentHashMap<Throwable, Boolean> uncaught  = new ConcurrentHashMap<>();
+        ContextPool                           pool      = ContextThread.createPool(1, (t, e) -> uncaught.put(e, true));
+        Observed<TestMutable, Integer>        source    = Observed.of("source", 0);
+        Setable<TestMutable, Integer>         target    = Setable.of("target", 0);
+        TestMutableClass                      clazz     = TestMutableClass.of("Universe", source, target).observe(o -> target.set(o, source.get(o) * 2));
+        TestUniverse[]                        universes = new TestUniverse[]{TestUniverse.of("left", clazz), TestUniverse.of("right", clazz)};
+        UniverseTransaction[]                 utxs      = new UniverseTransaction[universes.length];
+        for (int u = 0; u < universes.length; u++) {
+            utxs[u] = new UniverseTransaction(universes[u], pool, new DclareConfig().withDevMode(true).withMainLoopQuantum(1));
+        }
+        for (int i = 1; i <= 20; i++) {
+            for (int u = 0; u < universes.length; u++) {
+                TestUniverse universe = universes[u];
+                int          value    = i * (u + 1);
+                utxs[u].put("set" + i, () -> source.set(universe, value));
+            }
+        }
+        for (UniverseTransaction utx : utxs) {
+            utx.stop();
+        }
+        for (int u = 0; u < universes.length; u++) {
+            int                 nr       = u;
+            TestUniverse        universe = universes[u];
+            State               result   = assertDoesNotThrow(() -> universe.waitForEnd(utxs[nr]));
+            assertEquals(20 * (u + 1), (int) result.get(universe, source));
+            assertEquals(40 * (u + 1), (int) result.get(universe, target));
+        }
+        assertTrue(uncaught.isEmpty(), () -> "uncaught " + uncaught.keySet());
+        assertTrue(Thread.getAllStackTraces().keySet().stream().filter(t -> t.getName().equals("ConstantState.remover")).count() <= 1);
+    }
+
+    @Test
+    public void dispatchIsFair() throws InterruptedException {
+        ConcurrentHashMap<Throwable, Boolean> uncaught  = new ConcurrentHashMap<>();
+        ContextPool                           pool      = ContextThread.createPool(1, (t, e) -> uncaught.put(e, true));
+        CountDownLatch                        started   = new CountDownLatch(1);
+        CountDownLatch                        release   = new CountDownLatch(1);
+        pool.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new Error(e);
+            }
+        });
+        started.await();
+        ConcurrentLinkedQueue<String> log       = new ConcurrentLinkedQueue<>();
+        TestMutableClass              clazz     = TestMutableClass.of("Universe");
+        TestUniverse[]                universes = new TestUniverse[]{TestUniverse.of("left", clazz), TestUniverse.of("right", clazz)};
+        UniverseTransaction[]         utxs      = new UniverseTransaction[universes.length];
+        for (int u = 0; u < universes.length; u++) {
+            utxs[u] = new UniverseTransaction(universes[u], pool, new DclareConfig().withDevMode(true).withMainLoopQuantum(1));
+        }
+        for (int u = 0; u < universes.length; u++) {
+            String name = universes[u].toString();
+            for (int i = 1; i <= 20; i++) {
+                utxs[u].put("busy" + i, () -> log.add(name));
+            }
+            utxs[u].stop();
+        }
+        release.countDown();
+        for (int u = 0; u < universes.length; u++) {
+            int nr = u;
+            assertDoesNotThrow(() -> universes[nr].waitForEnd(utxs[nr]));
+        }
+        assertEquals(40, log.size());
+        String last    = null;
+        int    run     = 0;
+        int    longest = 0;
+        for (String name : log) {
+            run = name.equals(last) ? run + 1 : 1;
+            last = name;
+            longest = Math.max(longest, run);
+        }
+        assertTrue(longest <= 2, () -> "universes did not interleave: " + log);
+        assertTrue(uncaught.isEmpty(), () -> "uncaught " + uncaught.keySet());
+    }
+
+    @Test
+    public void imperativeBulk() {
+        Observed<TestMutable, Integer> a    = Observed.of("a", 0);
+        Observed<TestMutable, Integer> b    = Observed.of("b", 0);
+        Observed<TestMutable, Integer> c    = Observed.of("c", 0);
+        Setable<TestMutable, Integer>  sum  = Setable.of("sum", 0);
+        ConcurrentLinkedQueue<Integer> seen = new ConcurrentLinkedQueue<>();
+        TestUniverse universe = TestUniverse.of("universe", TestMutableClass.of("Universe", a, b, c, sum).observe(o -> {
+            int s = a.get(o) + b.get(o) + c.get(o);
+            seen.add(s);
+            sum.set(o, s);
+        }));
+        UniverseTransaction universeTransaction = new UniverseTransaction(universe, THE_POOL, new DclareConfig().withDevMode(true));
+        State before = universeTransaction.putAndWaitForIdle("start", () -> {
+        });
+        TestScheduler scheduler = TestScheduler.of();
+        scheduler.start();
+        ImperativeTransaction imperative = universeTransaction.addImperative("BULK", (pre, post, last, setted) -> {
+        }, scheduler, false);
+        State[] inBulk = new State[3];
+        StatusIterator<Status> it = universeTransaction.getStatusIterator();
+        imperative.scheduleBulk(() -> {
+            inBulk[0] = imperative.mutableState().state();
+            a.set(universe, 1);
+            b.set(universe, 2);
+            c.set(universe, 3);
+            inBulk[1] = imperative.mutableState().state();
+            inBulk[2] = imperative.state();
+        });
+        it.waitForStoppedOr(s -> !s.active.isEmpty());
+        State result = universeTransaction.waitForStatus(s -> s.isIdle() && s.active.isEmpty()).state;
+        scheduler.stop();
+        universeTransaction.stop();
+        assertDoesNotThrow(() -> universe.waitForEnd(universeTransaction));
+
+        assertSame(inBulk[0], inBulk[1]);
+        assertEquals(3, (int) inBulk[2].get(universe, c));
+        assertEquals(1L, imperative.lag(before));
+        assertEquals(6, (int) result.get(universe, sum));
+        assertTrue(seen.stream().allMatch(s -> s == 0 || s == 6), seen::toString);
+    }
+
+    @Test
+    public void parallelCommit() {
+        Observed<TestMutable, Integer>    left     = Observed.of("left", 0);
+        Observed<TestMutable, Integer>    right    = Observed.of("right", 0);
+        ConcurrentHashMap<Integer, State> posts    = new ConcurrentHashMap<>();
+        TestUniverse                      universe = TestUniverse.of("universe", TestMutableClass.of("Universe", left, right));
+        UniverseTransaction universeTransaction = new UniverseTransaction(universe, THE_POOL, new DclareConfig().withDevMode(true).withParallelCommit(true));
+        universeTransaction.putAndWaitForIdle("start", () -> {
+        });
+        TestScheduler[]         schedulers  = new TestScheduler[2];
+        ImperativeTransaction[] imperatives = new ImperativeTransaction[2];
+        for (int i = 0; i < imperatives.length; i++) {
+            int nr = i;
+            schedulers[i] = TestScheduler.of();
+            schedulers[i].start();
+            imperatives[i] = universeTransaction.addImperative("IMPERATIVE" + i, (pre, post, last, setted) -> posts.put(nr, post), schedulers[i], false);
+        }
+        imperatives[0].schedule(() -> left.set(universe, 1));
+        imperatives[1].schedule(() -> right.set(universe, 2));
+        universeTransaction.stop();
+        State result = assertDoesNotThrow(() -> universe.waitForEnd(universeTransaction));
+        for (TestScheduler scheduler : schedulers) {
+            scheduler.stop();
+        }
+
+        assertEquals(1, (int) result.get(universe, left));
+        assertEquals(2, (int) result.get(universe, right));
+        assertTrue(universeTransaction.isImperativesInSync());
+        assertSame(posts.get(0), posts.get(1));
+        assertEquals(1, (int) posts.get(0).get(universe, left));
+        assertEquals(2, (int) posts.get(0).get(universe, right));
+    }
+
     @Test
     public void constants() {
         TestUniverse        universe            = TestUniverse.of("universe", TestMutableClass.of("Universe"));
@@ -253,6 +731,23 @@ public class DclareTests {
         printState(universeTransaction, null);
     }
 
+    @Test
+    public void tooManyChanges() {
+        for (int ringSize : new int[]{0, 64}) {
+            Observed<TestMutable, Integer> a        = Observed.of("a", 0);
+            Observed<TestMutable, Integer> b        = Observed.of("b", 0);
+            TestMutableClass               clazz    = TestMutableClass.of("Universe", a, b).observe(o -> a.set(o, b.get(o) + 1)).observe(o -> b.set(o, a.get(o) + 1));
+            TestUniverse                   universe = TestUniverse.of("universe", clazz);
+            UniverseTransaction universeTransaction = new UniverseTransaction(universe, THE_POOL, new DclareConfig().withDevMode(true).withTraceRingSize(ringSize));
+            universeTransaction.put("start", () -> a.set(universe, 1));
+            universeTransaction.stop();
+            TooManyChangesException t = assertThrows(TooManyChangesException.class, () -> universe.waitForEnd(universeTransaction), "ring size " + ringSize);
+            assertEquals(universe, t.getLast().mutable());
+            assertFalse(t.getLast().done().isEmpty());
+            assertTrue(t.getMessage().contains("Too many changes"), t::getMessage);
+        }
+    }
+
     @Test
     public void moodTest() {
         Observed<TestUniverse, TestMutable> child               = Observed.of("child", null, containment);
@@ -0,0 +1,92 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+// (C) Copyright 2018-2023 Modeling Value Group B.V. (http://modelingvalue.org)                                        ~
+//                                                                                                                     ~
+// Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in      ~
+// compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0  ~
+// Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on ~
+// an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the  ~
+// specific language governing permissions and limitations under the License.                                          ~
+//                                                                                                                     ~
+// Maintainers:                                                                                                        ~
+//     Wim Bast, Tom Brus, Ronald Krijgsheld                                                                           ~
+// Contributors:                                                                                                       ~
+//     Arjan Kok, Carel Bast                                                                                           ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.dclare.test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.modelingvalue.dclare.CoreSetableModifier.containment;
+import static org.modelingvalue.dclare.test.support.Shared.THE_POOL;
+
+import org.junit.jupiter.api.Test;
+import org.modelingvalue.collections.Set;
+import org.modelingvalue.dclare.DclareConfig;
+import org.modelingvalue.dclare.JsonToState;
+import org.modelingvalue.dclare.Mutable;
+import org.modelingvalue.dclare.Observed;
+import org.modelingvalue.dclare.Setable;
+import org.modelingvalue.dclare.State;
+import org.modelingvalue.dclare.StateMap;
+import org.modelingvalue.dclare.StateToJson;
+import org.modelingvalue.dclare.UniverseTransaction;
+import org.modelingvalue.dclare.test.support.TestMutable;
+import org.modelingvalue.dclare.test.support.TestMutableClass;
+import org.modelingvalue.dclare.test.support.TestUniverse;
+
+public class JsonToStateTests {
+    @Test
+    public void roundTrip() {
+        Observed<TestUniverse, Set<TestMutable>> children            = Observed.of("children", Set.of(), containment);
+        Observed<TestMutable, Integer>           number              = Observed.of("number", 0);
+        Observed<TestMutable, TestMutable>       other               = Observed.of("other", null);
+        TestMutableClass                         clazz               = TestMutableClass.of("Object", number, other);
+        TestUniverse                             universe            = TestUniverse.of("universe", TestMutableClass.of("Universe", children));
+        UniverseTransaction                      universeTransaction = new UniverseTransaction(universe, THE_POOL, new DclareConfig().withDevMode(true));
+        TestMutable                              a                   = TestMutable.of("a", clazz);
+        TestMutable                              b                   = TestMutable.of("b", clazz);
+        universeTransaction.put("step1", () -> {
+            children.set(universe, Set.of(a, b));
+            number.set(a, 7);
+            other.set(a, b);
+            other.set(b, a);
+        });
+        universeTransaction.stop();
+        State result = assertDoesNotThrow(() -> universe.waitForEnd(universeTransaction));
+
+        String json = new StateToJson(universe, result) {
+            @Override
+            protected String getId(Mutable m) {
+                return ((TestMutable) m).id().toString();
+            }
+        }.render();
+
+        StateMap imported = new JsonToState(universe, json) {
+            @Override
+            protected Mutable makeMutable(String id, Mutable parent, Setable<Mutable, ?> containing) {
+                return TestMutable.of(id, clazz);
+            }
+        }.toStateMap();
+
+        assertEquals(Set.of(a, b), imported.get(universe, children));
+        assertEquals(7, (int) imported.get(a, number));
+        assertEquals(b, imported.get(a, other));
+        assertEquals(a, imported.get(b, other));
+        assertEquals(universe, imported.getA(a, Mutable.D_PARENT_CONTAINING));
+
+        UniverseTransaction restarted = new UniverseTransaction(universe, THE_POOL, new DclareConfig().withDevMode(true), null, imported);
+        restarted.stop();
+        State restored = assertDoesNotThrow(() -> universe.waitForEnd(restarted));
+        assertEquals(7, (int) restored.get(a, number));
+        assertEquals(b, restored.get(a, other));
+    }
+
+    @Test
+    public void unknownReference() {
+        Observed<TestUniverse, TestMutable> ref      = Observed.of("ref", null);
+        TestUniverse                        universe = TestUniverse.of("universe", TestMutableClass.of("Universe", ref));
+        assertThrows(IllegalArgumentException.class, () -> new JsonToState(universe, "{\"@id\":\"universe\",\"ref\":{\"@idref\":\"x\"}}").toStateMap());
+    }
+}
@@ -0,0 +1,150 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+// (C) Copyright 2018-2023 Modeling Value Group B.V. (http://modelingvalue.org)                                        ~
+//                                                                                                                     ~
+// Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in      ~
+// compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0  ~
+// Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on ~
+// an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the  ~
+// specific language governing permissions and limitations under the License.                                          ~
+//                                                                                                                     ~
+// Maintainers:                                                                                                        ~
+//     Wim Bast, Tom Brus, Ronald Krijgsheld                                                                           ~
+// Contributors:                                                                                                       ~
+//     Arjan Kok, Carel Bast                                                                                           ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+package org.modelingvalue.dclare.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.modelingvalue.dclare.Lane;
+import org.modelingvalue.dclare.LaneQueue;
+
+public class LaneQueueTests {
+    @Test
+    public void laneOrder() throws InterruptedException {
+        LaneQueue<String> queue = new LaneQueue<>(16, 0, Lane.interactive);
+        queue.put(Lane.maintenance, "m1");
+        queue.put(Lane.bulk, "b1");
+        queue.put(Lane.sync, "s1");
+        queue.put("i1");
+        queue.put(Lane.sync, "s2");
+        queue.put(Lane.interactive, "i2");
+        assertEquals(2, queue.size(Lane.interactive));
+        assertEquals(List.of("i1", "i2", "s1", "s2", "b1", "m1"), drain(queue));
+    }
+
+    @Test
+    public void starvationLimit() throws InterruptedException {
+        LaneQueue<String> queue = new LaneQueue<>(16, 2, Lane.interactive);
+        queue.put(Lane.bulk, "b1");
+        queue.put(Lane.bulk, "b2");
+        for (int i = 1; i <= 5; i++) {
+            queue.put("i" + i);
+        }
+        assertEquals(List.of("i1", "i2", "b1", "i3", "i4", "b2", "i5"), drain(queue));
+    }
+
+    @Test
+    public void putBehindKeepsFifoOrder() throws InterruptedException {
+        LaneQueue<String> queue = new LaneQueue<>(16, 0, Lane.interactive);
+        queue.put(Lane.bulk, "b1");
+        queue.put(Lane.sync, "s1");
+        LaneQueue.Ticket<String> stop = queue.putBehind("stop");
+        queue.put("i1");
+        queue.put(Lane.bulk, "b2");
+        assertNull(stop.lane());
+        assertEquals(List.of("i1", "s1", "b1", "b2", "stop"), List.copyOf(queue));
+        assertEquals(List.of("i1", "s1", "b1", "stop", "b2"), drain(queue));
+        assertFalse(stop.isQueued());
+    }
+
+    @Test
+    public void capacityBlocks() throws InterruptedException {
+        LaneQueue<String> queue = new LaneQueue<>(2, 0, Lane.interactive);
+        queue.put(Lane.bulk, "b1");
+        queue.put(Lane.bulk, "b2");
+        assertNull(queue.offer(Lane.interactive, "i1"));
+        assertNull(queue.offer(Lane.interactive, "i1", 10, TimeUnit.MILLISECONDS));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch put     = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            started.countDown();
+            try {
+                queue.put(Lane.interactive, "i1");
+            } catch (InterruptedException e) {
+                throw new Error(e);
+            }
+            put.countDown();
+        });
+        producer.start();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertFalse(put.await(100, TimeUnit.MILLISECONDS));
+        assertEquals(0, queue.remainingCapacity());
+        assertEquals("b1", queue.take());
+        assertTrue(put.await(10, TimeUnit.SECONDS));
+        producer.join();
+        assertEquals(List.of("i1", "b2"), drain(queue));
+    }
+
+    @Test
+    public void cancel() throws InterruptedException {
+        LaneQueue<String>        queue = new LaneQueue<>(16, 0, Lane.interactive);
+        LaneQueue.Ticket<String> s1    = queue.put(Lane.sync, "s1");
+        LaneQueue.Ticket<String> s2    = queue.put(Lane.sync, "s2");
+        LaneQueue.Ticket<String> stop  = queue.putBehind("stop");
+        assertTrue(s1.isQueued());
+        assertTrue(s1.cancel());
+        assertFalse(s1.isQueued());
+        assertFalse(s1.cancel());
+        assertTrue(stop.cancel());
+        assertEquals(1, queue.size());
+        assertEquals("s2", queue.take());
+        assertFalse(s2.isQueued());
+        assertFalse(s2.cancel());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void supersedeInPlace() throws InterruptedException {
+        LaneQueue<String> queue = new LaneQueue<>(3, 0, Lane.interactive);
+        queue.put(Lane.sync, "s1");
+        LaneQueue.Ticket<String> old = queue.put(Lane.sync, "k", "k1", (o, n) -> n);
+        queue.put(Lane.sync, "s2");
+        LaneQueue.Ticket<String> superseding = queue.put(Lane.sync, "k", "k2", (o, n) -> o + "+" + n);
+        assertFalse(old.isQueued());
+        assertTrue(superseding.isQueued());
+        assertEquals("k1+k2", superseding.element());
+        assertEquals(3, queue.size());
+        assertEquals(List.of("s1", "k1+k2", "s2"), drain(queue));
+    }
+
+    @Test
+    public void supersedeInOtherLane() throws InterruptedException {
+        LaneQueue<String> queue = new LaneQueue<>(16, 0, Lane.interactive);
+        queue.put(Lane.sync, "s1");
+        queue.put(Lane.bulk, "k", "k1", (o, n) -> n);
+        queue.put(Lane.sync, "s2");
+        queue.putBehind("stop");
+        LaneQueue.Ticket<String> moved = queue.put(Lane.sync, "k", "k2", (o, n) -> n);
+        assertEquals(Lane.sync, moved.lane());
+        assertEquals(0, queue.size(Lane.bulk));
+        assertEquals(List.of("s1", "k2", "s2", "stop"), drain(queue));
+    }
+
+    private static List<String> drain(LaneQueue<String> queue) throws InterruptedException {
+        List<String> taken = new ArrayList<>();
+        while (!queue.isEmpty()) {
+            taken.add(queue.take());
+        }
+        return taken;
+    }
+}
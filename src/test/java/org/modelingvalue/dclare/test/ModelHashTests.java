@@ -0,0 +1,49 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+// (C) Copyright 2018-2023 Modeling Value Group B.V. (http://modelingvalue.org)                                        ~
+//                                                                                                                     ~
+// Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in      ~
+// compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0  ~
+// Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on ~
+// an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the  ~
+// specific language governing permissions and limitations under the License.                                          ~
+//                                                                                                                     ~
+// Maintainers:                                                                                                        ~
+//     Wim Bast, Tom Brus, Ronald Krijgsheld                                                                           ~
+// Contributors:                                                                                                       ~
+//     Arjan Kok, Carel Bast                                                                                           ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.dclare.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+import org.modelingvalue.dclare.Observed;
+import org.modelingvalue.dclare.OneShot;
+import org.modelingvalue.dclare.test.support.TestMutable;
+import org.modelingvalue.dclare.test.support.TestMutableClass;
+import org.modelingvalue.dclare.test.support.TestUniverse;
+
+public class ModelHashTests {
+    private static final Observed<TestMutable, Integer> NUMBER = Observed.of("#hashNumber", 0);
+    private static final Observed<TestMutable, String>  NAME   = Observed.of("#hashName", (String) null);
+
+    @Test
+    public void modelHash() {
+        TestUniverse plain    = TestUniverse.of("universe", TestMutableClass.of("HashUniverse", NUMBER));
+        TestUniverse same     = TestUniverse.of("universe", TestMutableClass.of("HashUniverse", NUMBER));
+        TestUniverse setables = TestUniverse.of("universe", TestMutableClass.of("HashUniverse", NUMBER, NAME));
+        TestUniverse rules    = TestUniverse.of("universe", TestMutableClass.of("HashUniverse", NUMBER).observe(o -> NAME.set(o, "x")));
+        String       hash     = new HashOneShot(plain).getModelHash();
+        assertEquals(hash, new HashOneShot(same).getModelHash());
+        assertNotEquals(hash, new HashOneShot(setables).getModelHash());
+        assertNotEquals(hash, new HashOneShot(rules).getModelHash());
+    }
+
+    public static class HashOneShot extends OneShot<TestUniverse> {
+        public HashOneShot(TestUniverse universe) {
+            super(universe);
+        }
+    }
+}
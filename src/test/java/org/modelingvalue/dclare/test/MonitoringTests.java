@@ -0,0 +1,235 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+// (C) Copyright 2018-2023 Modeling Value Group B.V. (http://modelingvalue.org)                                        ~
+//                                                                                                                     ~
+// Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in      ~
+// compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0  ~
+// Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on ~
+// an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the  ~
+// specific language governing permissions and limitations under the License.                                          ~
+//                                                                                                                     ~
+// Maintainers:                                                                                                        ~
+//     Wim Bast, Tom Brus, Ronald Krijgsheld                                                                           ~
+// Contributors:                                                                                                       ~
+//     Arjan Kok, Carel Bast                                                                                           ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.dclare.test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.modelingvalue.dclare.CoreSetableModifier.containment;
+import static org.modelingvalue.dclare.test.support.Shared.THE_POOL;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.jupiter.api.Test;
+import org.modelingvalue.collections.Set;
+import org.modelingvalue.dclare.Action;
+import org.modelingvalue.dclare.ActionProfiler;
+import org.modelingvalue.dclare.ActionProfiler.Profile;
+import org.modelingvalue.dclare.DclareConfig;
+import org.modelingvalue.dclare.MetricsRegistry;
+import org.modelingvalue.dclare.Observed;
+import org.modelingvalue.dclare.Observer;
+import org.modelingvalue.dclare.Priority;
+import org.modelingvalue.dclare.Setable;
+import org.modelingvalue.dclare.State;
+import org.modelingvalue.dclare.UniverseMetrics;
+import org.modelingvalue.dclare.UniverseStatistics;
+import org.modelingvalue.dclare.UniverseTransaction;
+import org.modelingvalue.dclare.test.support.TestMutable;
+import org.modelingvalue.dclare.test.support.TestMutableClass;
+import org.modelingvalue.dclare.test.support.TestUniverse;
+
+public class MonitoringTests {
+    @Test
+    public void profiler() {
+        Observed<TestUniverse, Set<TestMutable>> children            = Observed.of("children", Set.of(), containment);
+        Observed<TestMutable, Integer>           source              = Observed.of("source", 0);
+        Setable<TestMutable, Integer>            target              = Setable.of("target", 0);
+        TestUniverse                             universe            = TestUniverse.of("universe", TestMutableClass.of("Universe", children));
+        TestMutableClass                         clazz               = TestMutableClass.of("Object").observe(o -> target.set(o, source.get(o)));
+        UniverseTransaction                      universeTransaction = new UniverseTransaction(universe, THE_POOL, new DclareConfig().withDevMode(true).withProfiling(true));
+        universeTransaction.put("step1", () -> {
+            for (int i = 0; i < 10; i++) {
+                children.set(universe, Set::add, TestMutable.of(i, clazz));
+            }
+        });
+        universeTransaction.put("step2", () -> {
+            for (int i = 0; i < 10; i++) {
+                source.set(TestMutable.of(i, clazz), i + 1);
+            }
+        });
+        universeTransaction.stop();
+        State result = assertDoesNotThrow(() -> universe.waitForEnd(universeTransaction));
+        assertEquals(10, (int) result.get(TestMutable.of(9, clazz), target));
+
+        ActionProfiler profiler = universeTransaction.profiler();
+        Profile        step1    = profiler.profile(Action.of("step1"));
+        assertEquals(1, step1.runs());
+        assertEquals(1, profiler.profile(Action.of("step2")).runs());
+
+        Observer<?> observer = clazz.dObservers().findAny().orElseThrow();
+        Profile     profile  = profiler.profile(observer);
+        assertTrue(profile.runs() >= 20, "runs " + profile.runs());
+        assertEquals(profile.runs(), Arrays.stream(profile.histogram()).sum());
+        assertTrue(profile.maxNanos() > 0);
+        assertTrue(profile.totalNanos() >= profile.maxNanos());
+        assertTrue(profiler.profiles().anyMatch(p -> p == profile));
+    }
+
+    @Test
+    public void flightRecorderEvents() throws IOException {
+        Observed<TestUniverse, Integer> number   = Observed.of("number", 0);
+        TestUniverse                    universe = TestUniverse.of("universe", TestMutableClass.of("Universe", number));
+        java.util.List<RecordedEvent>   events;
+        try (Recording recording = new Recording()) {
+            recording.enable("org.modelingvalue.dclare.Cycle").withThreshold(Duration.ZERO);
+            recording.enable("org.modelingvalue.dclare.Priority").withThreshold(Duration.ZERO);
+            recording.enable("org.modelingvalue.dclare.SlowAction").withThreshold(Duration.ofMillis(20));
+            recording.start();
+            UniverseTransaction universeTransaction = new UniverseTransaction(universe, THE_POOL, new DclareConfig().withDevMode(true));
+            universeTransaction.put("fast", () -> number.set(universe, 1));
+            universeTransaction.put("slow", () -> {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    throw new Error(e);
+                }
+                number.set(universe, 2);
+            });
+            universeTransaction.stop();
+            assertDoesNotThrow(() -> universe.waitForEnd(universeTransaction));
+            recording.stop();
+            Path file = Files.createTempFile("dclare", ".jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+        assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("org.modelingvalue.dclare.Cycle") && "fast".equals(e.getString("action"))));
+        assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("org.modelingvalue.dclare.Priority")));
+        assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("org.modelingvalue.dclare.SlowAction") && "slow".equals(e.getString("action"))));
+        assertTrue(events.stream().noneMatch(e -> e.getEventType().getName().equals("org.modelingvalue.dclare.SlowAction") && "fast".equals(e.getString("action"))));
+    }
+
+    @Test
+    public void metrics() throws JMException {
+        Observed<TestUniverse, Integer> number              = Observed.of("number", 0);
+        TestUniverse                    universe            = TestUniverse.of("universe", TestMutableClass.of("MetricsUniverse", number));
+        UniverseTransaction             universeTransaction = new UniverseTransaction(universe, THE_POOL, new DclareConfig().withDevMode(true));
+        UniverseMetrics                 metrics             = universeTransaction.metrics();
+        java.util.Map<String, Number>   registry            = new java.util.concurrent.ConcurrentHashMap<>();
+        metrics.bindTo(new MetricsRegistry() {
+            @Override
+            public void gauge(String name, String description, DoubleSupplier value) {
+                registry.put(name, value.getAsDouble());
+            }
+
+            @Override
+            public void counter(String name, String description, LongSupplier count) {
+                registry.put(name, count.getAsLong());
+            }
+        });
+        assertEquals(10, registry.size());
+        metrics.registerMBean();
+        try {
+            for (int i = 1; i <= 3; i++) {
+                int n = i;
+                universeTransaction.put("step" + i, () -> number.set(universe, n));
+            }
+            universeTransaction.stop();
+            assertDoesNotThrow(() -> universe.waitForEnd(universeTransaction));
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName  name   = new ObjectName(UniverseMetrics.DOMAIN + ":type=Universe,name=" + ObjectName.quote(universe.toString()));
+            assertTrue((Long) server.getAttribute(name, "CycleCount") >= 4);
+            assertEquals(metrics.getCycleCount(), server.getAttribute(name, "CycleCount"));
+            assertEquals(0, server.getAttribute(name, "NumInQueue"));
+            assertEquals("stopped", server.getAttribute(name, "Mood"));
+            assertEquals(0L, server.getAttribute(name, "ErrorCount"));
+            assertEquals(0, server.getAttribute(name, "CurrentErrorCount"));
+            assertTrue((Integer) server.getAttribute(name, "HistorySize") >= 4);
+            assertEquals(universeTransaction.history().size(), server.getAttribute(name, "HistorySize"));
+            assertTrue((Long) server.getAttribute(name, "ImperativeLag") >= 0L);
+        } finally {
+            metrics.unregisterMBean();
+        }
+    }
+
+    @Test
+    public void errorMetrics() {
+        TestUniverse        universe            = TestUniverse.of("universe", TestMutableClass.of("ErrorMetricsUniverse"));
+        UniverseTransaction universeTransaction = new UniverseTransaction(universe, THE_POOL, new DclareConfig().withDevMode(true));
+        universeTransaction.put("fail", () -> {
+            throw new IllegalStateException("fail");
+        });
+        universeTransaction.stop();
+        assertThrows(Throwable.class, () -> universe.waitForEnd(universeTransaction));
+        assertTrue(universeTransaction.metrics().getErrorCount() >= 1);
+        assertTrue(universeTransaction.metrics().getCurrentErrorCount() >= 1);
+    }
+
+    @Test
+    public void statistics() {
+        Observed<TestUniverse, Set<TestMutable>> children            = Observed.of("children", Set.of(), containment);
+        Observed<TestMutable, Integer>           source              = Observed.of("source", 0);
+        Observed<TestMutable, Integer>           target              = Observed.of("target", 0);
+        TestUniverse                             universe            = TestUniverse.of("universe", TestMutableClass.of("Universe", children));
+        TestMutableClass                         clazz               = TestMutableClass.of("Object").observe(o -> target.set(o, source.get(o))).observe(o -> source.set(o, target.get(o)));
+        UniverseTransaction                      universeTransaction = new UniverseTransaction(universe, THE_POOL, new DclareConfig().withDevMode(true).withProfiling(true));
+        universeTransaction.put("step1", () -> {
+            for (int i = 0; i < 10; i++) {
+                children.set(universe, Set::add, TestMutable.of(i, clazz));
+            }
+        });
+        universeTransaction.put("step2", () -> {
+            for (int i = 0; i < 10; i++) {
+                source.set(TestMutable.of(i, clazz), i + 1);
+                target.set(TestMutable.of(i, clazz), i + 2);
+            }
+        });
+        universeTransaction.put("step3", () -> children.set(universe, Set::remove, TestMutable.of(0, clazz)));
+        universeTransaction.stop();
+        assertDoesNotThrow(() -> universe.waitForEnd(universeTransaction));
+
+        UniverseStatistics stats = universeTransaction.stats();
+        assertTrue(stats.iterationsEver(Priority.OUTER) >= 4, "iterations " + stats.iterationsEver(Priority.OUTER));
+        assertTrue(stats.mostIterationsEver() >= 1);
+        assertTrue(Arrays.stream(stats.lastIterations()).sum() >= 1);
+        assertTrue(Arrays.stream(stats.lastIterations()).sum() <= stats.mostIterationsEver());
+        assertTrue(stats.orphanPassesEver() >= 4, "orphan passes " + stats.orphanPassesEver());
+        assertTrue(stats.lastOrphanPasses() <= stats.orphanPassesEver());
+        assertEquals(0, Arrays.stream(stats.deferrals()).sum());
+        assertTrue(Arrays.stream(stats.lastDeferrals()).sum() <= Arrays.stream(stats.deferralsEver()).sum());
+
+        long deferredRuns = clazz.dObservers().mapToLong(o -> universeTransaction.profiler().profile(o).deferrals()).sum();
+        assertTrue(Arrays.stream(stats.deferralsEver()).sum() >= deferredRuns, "deferrals " + Arrays.toString(stats.deferralsEver()) + " deferred runs " + deferredRuns);
+    }
+
+    @Test
+    public void profileBuckets() {
+        assertEquals(0, Profile.bucket(0));
+        assertEquals(0, Profile.bucket(999));
+        assertEquals(1, Profile.bucket(1_000));
+        assertEquals(1, Profile.bucket(1_999));
+        assertEquals(2, Profile.bucket(2_000));
+        assertEquals(11, Profile.bucket(1_024_000));
+        assertEquals(ActionProfiler.NR_OF_BUCKETS - 1, Profile.bucket(Long.MAX_VALUE));
+    }
+}
@@ -0,0 +1,147 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+// (C) Copyright 2018-2023 Modeling Value Group B.V. (http://modelingvalue.org)                                        ~
+//                                                                                                                     ~
+// Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in      ~
+// compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0  ~
+// Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on ~
+// an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the  ~
+// specific language governing permissions and limitations under the License.                                          ~
+//                                                                                                                     ~
+// Maintainers:                                                                                                        ~
+//     Wim Bast, Tom Brus, Ronald Krijgsheld                                                                           ~
+// Contributors:                                                                                                       ~
+//     Arjan Kok, Carel Bast                                                                                           ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.dclare.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.modelingvalue.dclare.CoreSetableModifier.containment;
+import static org.modelingvalue.dclare.test.support.Shared.THE_POOL;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.modelingvalue.collections.List;
+import org.modelingvalue.collections.Set;
+import org.modelingvalue.dclare.DclareConfig;
+import org.modelingvalue.dclare.Observed;
+import org.modelingvalue.dclare.OrderingStrategy;
+import org.modelingvalue.dclare.Schedule;
+import org.modelingvalue.dclare.ScheduleRecorder;
+import org.modelingvalue.dclare.ScheduleReplayer;
+import org.modelingvalue.dclare.Setable;
+import org.modelingvalue.dclare.State;
+import org.modelingvalue.dclare.UniverseTransaction;
+import org.modelingvalue.dclare.test.support.TestMutable;
+import org.modelingvalue.dclare.test.support.TestMutableClass;
+import org.modelingvalue.dclare.test.support.TestUniverse;
+
+public class ScheduleTests {
+    private static final int                               NR_OF_CHILDREN = 16;
+
+    private final Observed<TestUniverse, Set<TestMutable>> children       = Observed.of("children", Set.of(), containment);
+    private final Observed<TestMutable, Integer>           source         = Observed.of("source", 0);
+    private final Setable<TestMutable, Integer>            target         = Setable.of("target", 0);
+    private final TestMutableClass                         universeClass  = TestMutableClass.of("ScheduleUniverse", children);
+    private final TestMutableClass                         clazz          = TestMutableClass.of("Scheduled", source, target).observe(o -> target.set(o, source.get(o) + 1));
+    private final Observed<TestUniverse, List<Integer>>    inserts        = Observed.of("inserts", List.of());
+    private final TestMutableClass                         insertUniverse = TestMutableClass.of("InsertUniverse", children, inserts);
+    private final TestMutableClass                         inserter       = TestMutableClass.of("Inserter", source).observe(o -> inserts.set((TestUniverse) o.dParent(), List::append, (Integer) o.id()));
+    private State                                          result;
+
+    @Test
+    public void seededIsRepeatable() {
+        Schedule first = run(new ScheduleRecorder(OrderingStrategy.seeded(42), 4));
+        Schedule second = run(new ScheduleRecorder(OrderingStrategy.seeded(42), 4));
+        assertTrue(first.size() > 1, first.toString());
+        assertSameDecisions(first, second);
+    }
+
+    @Test
+    public void recordAndReplay() throws IOException {
+        Schedule recorded = run(new ScheduleRecorder(OrderingStrategy.RANDOM, 4));
+        Path file = Files.createTempFile("dclare", ".schedule");
+        try {
+            recorded.write(file);
+            Schedule read = Schedule.read(file);
+            assertSameDecisions(recorded, read);
+            Schedule replayed = run(new ScheduleRecorder(new ScheduleReplayer(read, OrderingStrategy.RANDOM), 4));
+            assertSameDecisions(recorded, replayed);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void parallelMergeIsTheSame() {
+        Schedule serial = run(new ScheduleRecorder(OrderingStrategy.seeded(7), 4), 0);
+        State serialResult = result;
+        Schedule parallel = run(new ScheduleRecorder(OrderingStrategy.seeded(7), 4), 2);
+        assertSameDecisions(serial, parallel);
+        assertTrue(serialResult.diff(result, o -> true, s -> !s.isPlumbing()).isEmpty());
+    }
+
+    @Test
+    public void parallelInsertsAreRepeatable() {
+        List<Integer> first = insert();
+        assertEquals(NR_OF_CHILDREN, first.asSet().size(), first.toString());
+        for (int i = 0; i < 32; i++) {
+            assertEquals(first, insert());
+        }
+    }
+
+    private List<Integer> insert() {
+        TestUniverse        universe            = TestUniverse.of("universe", insertUniverse);
+        UniverseTransaction universeTransaction = new UniverseTransaction(universe, THE_POOL, new DclareConfig().withDevMode(true).withOrderingStrategy(OrderingStrategy.seeded(11)));
+        universeTransaction.put("step", () -> {
+            for (int i = 0; i < NR_OF_CHILDREN; i++) {
+                children.set(universe, Set::add, TestMutable.of(i, inserter));
+            }
+        });
+        universeTransaction.stop();
+        State state = assertDoesNotThrow(() -> universe.waitForEnd(universeTransaction));
+        return state.get(universe, inserts);
+    }
+
+    private Schedule run(ScheduleRecorder recorder) {
+        return run(recorder, new DclareConfig().getParallelMergeThreshold());
+    }
+
+    private Schedule run(ScheduleRecorder recorder, int parallelMergeThreshold) {
+        TestUniverse        universe            = TestUniverse.of("universe", universeClass);
+        UniverseTransaction universeTransaction = new UniverseTransaction(universe, THE_POOL, new DclareConfig().withDevMode(true).withOrderingStrategy(recorder).withParallelMergeThreshold(parallelMergeThreshold));
+        Schedule[]          step                = new Schedule[1];
+        universeTransaction.put("step", () -> {
+            for (int i = 0; i < NR_OF_CHILDREN; i++) {
+                children.set(universe, Set::add, TestMutable.of(i, clazz));
+            }
+        });
+        universeTransaction.put("capture", () -> step[0] = recorder.lastSchedule(universeTransaction));
+        universeTransaction.stop();
+        result = assertDoesNotThrow(() -> universe.waitForEnd(universeTransaction));
+        assertNotNull(step[0]);
+        return step[0];
+    }
+
+    private static void assertSameDecisions(Schedule expected, Schedule actual) {
+        assertEquals(expected.keys(), actual.keys());
+        for (String key : expected.keys()) {
+            java.util.List<Schedule.Decision> e = expected.decisions(key);
+            java.util.List<Schedule.Decision> a = actual.decisions(key);
+            assertEquals(e.size(), a.size(), key);
+            for (int i = 0; i < e.size(); i++) {
+                assertArrayEquals(e.get(i).order(), a.get(i).order(), key);
+                if (e.get(i).merge() != Schedule.CONFLICT) {
+                    assertEquals(e.get(i).merge(), a.get(i).merge(), key);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+// (C) Copyright 2018-2023 Modeling Value Group B.V. (http://modelingvalue.org)                                        ~
+//                                                                                                                     ~
+// Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in      ~
+// compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0  ~
+// Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on ~
+// an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the  ~
+// specific language governing permissions and limitations under the License.                                          ~
+//                                                                                                                     ~
+// Maintainers:                                                                                                        ~
+//     Wim Bast, Tom Brus, Ronald Krijgsheld                                                                           ~
+// Contributors:                                                                                                       ~
+//     Arjan Kok, Carel Bast                                                                                           ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.dclare.test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.modelingvalue.dclare.CoreSetableModifier.containment;
+import static org.modelingvalue.dclare.test.support.Shared.THE_POOL;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.modelingvalue.collections.List;
+import org.modelingvalue.collections.Set;
+import org.modelingvalue.dclare.DclareConfig;
+import org.modelingvalue.dclare.FileStateMapStore;
+import org.modelingvalue.dclare.Mutable;
+import org.modelingvalue.dclare.Observed;
+import org.modelingvalue.dclare.State;
+import org.modelingvalue.dclare.StateMap;
+import org.modelingvalue.dclare.StateSnapshot;
+import org.modelingvalue.dclare.UniverseTransaction;
+import org.modelingvalue.dclare.test.support.TestMutable;
+import org.modelingvalue.dclare.test.support.TestMutableClass;
+import org.modelingvalue.dclare.test.support.TestObserved;
+import org.modelingvalue.dclare.test.support.TestSerializationHelper;
+import org.modelingvalue.dclare.test.support.TestUniverse;
+
+@SuppressWarnings("unchecked")
+public class StateSnapshotTests {
+    private static final Observed<TestMutable, Integer>          NUMBER   = TestObserved.of("#snapNumber", (o, s, v) -> v, (o, s, v) -> ((Number) v).intValue(), 0);
+    private static final Observed<TestMutable, String>           NAME     = TestObserved.of("#snapName", (o, s, v) -> v, (o, s, v) -> (String) v, null);
+    private static final TestMutableClass                        OBJECT   = TestMutableClass.of("SnapObject", NUMBER, NAME);
+    private static final Observed<TestMutable, Set<TestMutable>> CHILDREN = TestObserved.of("#snapChildren", (o, s, v) -> v.map(TestMutable::serialize).asList(), (o, s, v) -> ((List<String>) v).map(id -> TestMutable.of(id, OBJECT)).asSet(), Set.of(), containment);
+
+    @Test
+    public void storeAndLoad() throws IOException {
+        TestUniverse        universe            = TestUniverse.of("universe", TestMutableClass.of("SnapUniverse", CHILDREN));
+        UniverseTransaction universeTransaction = new UniverseTransaction(universe, THE_POOL, new DclareConfig().withDevMode(true));
+        TestMutable         a                   = TestMutable.of("a", OBJECT);
+        TestMutable         b                   = TestMutable.of("b", OBJECT);
+        universeTransaction.put("step1", () -> {
+            CHILDREN.set(universe, Set.of(a, b));
+            NUMBER.set(a, 7);
+            NAME.set(b, "bee");
+        });
+        universeTransaction.stop();
+        State result = assertDoesNotThrow(() -> universe.waitForEnd(universeTransaction));
+
+        Path              dir   = Files.createTempDirectory("dclare-snapshot");
+        FileStateMapStore store = new FileStateMapStore(dir, new TestSerializationHelper(universe));
+        assertNull(store.load(StateSnapshotTests.class, "v1"));
+        store.store(StateSnapshotTests.class, "v1", result.getStateMap());
+
+        StateMap loaded = store.load(StateSnapshotTests.class, "v1");
+        assertNotNull(loaded);
+        assertNull(store.load(StateSnapshotTests.class, "v2"));
+        assertEquals(Set.of(a, b), loaded.get(universe, CHILDREN));
+        assertEquals(7, (int) loaded.get(a, NUMBER));
+        assertEquals("bee", loaded.get(b, NAME));
+        assertEquals(universe, loaded.getA(a, Mutable.D_PARENT_CONTAINING));
+
+        Path          file     = dir.resolve(StateSnapshotTests.class.getName() + ".state");
+        StateSnapshot snapshot = StateSnapshot.open(file, new TestSerializationHelper(universe));
+        assertEquals("v1", snapshot.label());
+        assertEquals(3, snapshot.size());
+        assertEquals(7, (int) snapshot.get(a, NUMBER));
+        assertEquals(Set.of(a, b), snapshot.toStateMap(universe).get(universe, CHILDREN));
+        assertEquals(Set.of(), snapshot.toStateMap(a).get(universe, CHILDREN));
+
+        UniverseTransaction restarted = new UniverseTransaction(universe, THE_POOL, new DclareConfig().withDevMode(true), null, loaded);
+        restarted.stop();
+        State restored = assertDoesNotThrow(() -> universe.waitForEnd(restarted));
+        assertEquals(7, (int) restored.get(a, NUMBER));
+        assertEquals("bee", restored.get(b, NAME));
+
+        Files.write(file, "garbage".getBytes(StandardCharsets.UTF_8));
+        assertNull(store.load(StateSnapshotTests.class, "v1"));
+        store.remove(StateSnapshotTests.class);
+        assertNull(store.load(StateSnapshotTests.class, "v1"));
+    }
+}
@@ -18,6 +18,7 @@ package org.modelingvalue.dclare.test.support;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.modelingvalue.collections.Collection;
+import org.modelingvalue.dclare.DclareConfig;
 import org.modelingvalue.dclare.Mutable;
 import org.modelingvalue.dclare.MutableClass;
 import org.modelingvalue.dclare.Observed;
@@ -27,7 +28,12 @@ import org.modelingvalue.dclare.Setable;
 import org.modelingvalue.dclare.StateMap;
 import org.modelingvalue.dclare.Universe;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.modelingvalue.dclare.test.support.OneShotTests.TestUniverse.BASE;
@@ -63,6 +69,83 @@ public class OneShotTests {
         Assertions.assertEquals(100, invokes2.get());
     }
 
+    @Test
+    public void sharedPoolAdmission() throws InterruptedException {
+        int nr = Collection.PARALLELISM * 2 + 1;
+        for (int round = 0; round < 2; round++) {
+            ConcurrentHashMap<Integer, String> results = new ConcurrentHashMap<>();
+            ConcurrentLinkedQueue<Throwable>   errors  = new ConcurrentLinkedQueue<>();
+            CountDownLatch                     go      = new CountDownLatch(1);
+            List<Thread>                       threads = new ArrayList<>();
+            for (int i = 0; i < nr; i++) {
+                int           end     = i;
+                SharedOneShot oneShot = i % 2 == 0 ? new NestingOneShot(end, nr + end, results) : new SharedOneShot(end);
+                Thread thread = new Thread(() -> {
+                    try {
+                        go.await();
+                        results.put(end, oneShot.getEndStateMap().get(oneShot.getUniverse(), STAR));
+                    } catch (Throwable t) {
+                        errors.add(t);
+                    }
+                }, "OneShot-" + i);
+                threads.add(thread);
+                thread.start();
+            }
+            go.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            Assertions.assertTrue(errors.isEmpty(), errors::toString);
+            for (int i = 0; i < nr; i++) {
+                Assertions.assertEquals(MARKER + SEP + i, results.get(i), "at " + i);
+                if (i % 2 == 0) {
+                    Assertions.assertEquals(MARKER + SEP + (nr + i), results.get(nr + i), "nested at " + i);
+                }
+            }
+        }
+    }
+
+    public static class SharedOneShot extends OneShot<TestUniverse> {
+        private final int end;
+
+        public SharedOneShot(int end) {
+            super(new TestUniverse());
+            this.end = end;
+        }
+
+        @Override
+        public boolean useSharedContextPool() {
+            return true;
+        }
+
+        @OneShotAction
+        @SuppressWarnings("unused")
+        public void action_00() {
+            STAR.set(getUniverse(), MARKER + SEP + end);
+        }
+    }
+
+    /**
+     * Runs another OneShot on the same thread while it is admitted itself.
+     */
+    public static class NestingOneShot extends SharedOneShot {
+        private final int                                nested;
+        private final ConcurrentHashMap<Integer, String> results;
+
+        public NestingOneShot(int end, int nested, ConcurrentHashMap<Integer, String> results) {
+            super(end);
+            this.nested  = nested;
+            this.results = results;
+        }
+
+        @Override
+        public DclareConfig getConfig() {
+            SharedOneShot inner = new SharedOneShot(nested);
+            results.put(nested, inner.getEndStateMap().get(inner.getUniverse(), STAR));
+            return super.getConfig();
+        }
+    }
+
     private static final TestUniverse TEST_UNIVERSE = new TestUniverse();
 
     public static class TestOneShotInOne extends OneShot<TestUniverse> {
@@ -0,0 +1,80 @@
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+// (C) Copyright 2018-2023 Modeling Value Group B.V. (http://modelingvalue.org)                                        ~
+//                                                                                                                     ~
+// Licensed under the GNU Lesser General Public License v3.0 (the 'License'). You may not use this file except in      ~
+// compliance with the License. You may obtain a copy of the License at: https://choosealicense.com/licenses/lgpl-3.0  ~
+// Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on ~
+// an 'AS IS' BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the  ~
+// specific language governing permissions and limitations under the License.                                          ~
+//                                                                                                                     ~
+// Maintainers:                                                                                                        ~
+//     Wim Bast, Tom Brus, Ronald Krijgsheld                                                                           ~
+// Contributors:                                                                                                       ~
+//     Arjan Kok, Carel Bast                                                                                           ~
+//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+package org.modelingvalue.dclare.test.support;
+
+import java.util.function.Predicate;
+
+import org.modelingvalue.dclare.Mutable;
+import org.modelingvalue.dclare.Setable;
+import org.modelingvalue.dclare.sync.SerializationHelper;
+
+/**
+ * Serializes {@link TestMutable}s and {@link TestObserved} values, the given universe is deserialized as itself.
+ */
+public class TestSerializationHelper implements SerializationHelper<TestMutableClass, TestMutable, TestObserved<TestMutable, Object>> {
+    private final TestUniverse universe;
+
+    public TestSerializationHelper(TestUniverse universe) {
+        this.universe = universe;
+    }
+
+    @Override
+    public Predicate<Mutable> mutableFilter() {
+        return o -> o instanceof TestMutable;
+    }
+
+    @Override
+    public Predicate<Setable<TestMutable, ?>> setableFilter() {
+        return s -> s instanceof TestObserved;
+    }
+
+    @Override
+    public TestMutableClass getMutableClass(TestMutable mutable) {
+        return mutable.dClass();
+    }
+
+    @Override
+    public String serializeSetable(TestObserved<TestMutable, Object> setable) {
+        return setable.toString();
+    }
+
+    @Override
+    public String serializeMutable(TestMutable mutable) {
+        return mutable.dClass().serializeClass() + ":" + mutable.serialize();
+    }
+
+    @Override
+    public Object serializeValue(TestMutable mutable, TestObserved<TestMutable, Object> setable, Object value) {
+        return setable.getSerializeValue().apply(mutable, setable, value);
+    }
+
+    @Override
+    public TestObserved<TestMutable, Object> deserializeSetable(TestMutableClass clazz, String s) {
+        return TestObserved.existing(s);
+    }
+
+    @Override
+    public TestMutable deserializeMutable(String s) {
+        String[]         parts = s.split(":", 2);
+        TestMutableClass clazz = TestMutableClass.existing(parts[0]);
+        return clazz.equals(universe.dClass()) ? universe : TestMutable.of(parts[1], clazz);
+    }
+
+    @Override
+    public Object deserializeValue(TestMutable mutable, TestObserved<TestMutable, Object> setable, Object value) {
+        return setable.getDeserializeValue().apply(mutable, setable, value);
+    }
+}